@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -29,10 +30,19 @@ public class LocalHttpServer {
     private volatile boolean keepRunning;
     private final CountDownLatch waitForServerStartLatch;
     private final CountDownLatch waitForServerStopLatch;
+    private final Executor executor;
 
     public LocalHttpServer() {
+        this(null);
+    }
+
+    /**
+     * @param executor executor to handle requests (null to handle requests one at a time on the server thread)
+     */
+    public LocalHttpServer(Executor executor) {
         waitForServerStartLatch = new CountDownLatch(1);
         waitForServerStopLatch = new CountDownLatch(1);
+        this.executor = executor;
     }
 
     public static void main(String[] args) {
@@ -72,7 +82,9 @@ public class LocalHttpServer {
         }
 
         server.createContext("/delay", new DelayHttpHandler());
-        // server.setExecutor(Executors.newFixedThreadPool(4));
+        if (executor != null) {
+            server.setExecutor(executor);
+        }
         server.start();
         waitForServerStartLatch.countDown();
         log.trace("HTTP Server at port {} started", port);
@@ -5,20 +5,24 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
 import lombok.Getter;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings("unchecked")
 public class JsonUtil {
     @Getter
     private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> objectReaders = new ConcurrentHashMap<>();
 
     public JsonUtil() {
         objectMapper = new ObjectMapper();
@@ -66,6 +70,26 @@ public class JsonUtil {
         }
     }
 
+    /**
+     * Read a object from input stream - object is parsed directly from the stream (without reading the full stream
+     * into a byte array or string). Note - input stream is not closed by this method.
+     */
+    public <T> T readObject(InputStream inputStream, Class<T> cls) {
+        try {
+            if (inputStream == null) return null;
+            return objectReader(cls).readValue(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return a cached object reader for given class
+     */
+    public ObjectReader objectReader(Class<?> cls) {
+        return objectReaders.computeIfAbsent(cls, objectMapper::readerFor);
+    }
+
     /**
      * Convert string to List
      */
@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
 import io.gitbub.devlibx.easy.helper.string.StringHelper;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +47,13 @@ public class JsonUtils {
         return jsonUtil.readObject(str, cls);
     }
 
+    /**
+     * Read a object from input stream (input stream is not closed by this method)
+     */
+    public static <T> T readObject(InputStream inputStream, Class<T> cls) {
+        return jsonUtil.readObject(inputStream, cls);
+    }
+
     /**
      * Convert string to Map
      */
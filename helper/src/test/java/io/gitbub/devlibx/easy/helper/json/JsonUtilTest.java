@@ -4,6 +4,8 @@ import io.gitbub.devlibx.easy.helper.string.StringHelper;
 import io.gitbub.devlibx.easy.helper.string.StringHelperTest.PojoClass;
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
+
 public class JsonUtilTest extends TestCase {
 
     public void testWriteString() {
@@ -14,4 +16,15 @@ public class JsonUtilTest extends TestCase {
         JsonUtil jsonUtil = new JsonUtil();
         assertEquals(testClass, jsonUtil.readObject(stringHelper.stringify(testClass), PojoClass.class));
     }
-}
\ No newline at end of file
+
+    public void testReadFromStream() {
+        PojoClass testClass = new PojoClass();
+        testClass.setStr("some string");
+        testClass.setAnInt(11);
+        StringHelper stringHelper = new StringHelper();
+        JsonUtil jsonUtil = new JsonUtil();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(stringHelper.stringify(testClass).getBytes());
+        assertEquals(testClass, jsonUtil.readObject(inputStream, PojoClass.class));
+        assertSame(jsonUtil.objectReader(PojoClass.class), jsonUtil.objectReader(PojoClass.class));
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.devlibx.easy.http;
+
+import java.util.Map;
+
+/**
+ * Gives the key of a item in the response of a bulk api (see "api.batchApi") - a batched call with this key gets this
+ * item as its response.
+ */
+public interface IBatchKeyExtractor {
+
+    /**
+     * @param item a item from the bulk response
+     * @return key of this item (null if item does not have a key)
+     */
+    Object extractKey(Map<String, Object> item);
+}
@@ -12,6 +12,16 @@ public interface IRequestProcessor {
      */
     Observable<ResponseObject> process(RequestObject requestObject);
 
+    /**
+     * Handle a request in the calling thread and wait for the response - no observable is built for the call
+     *
+     * @param requestObject request information
+     * @return response of http call
+     */
+    default ResponseObject processBlocking(RequestObject requestObject) {
+        return process(requestObject).blockingFirst();
+    }
+
     /**
      * Cleanup
      */
@@ -1,24 +1,39 @@
 package io.github.devlibx.easy.http;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.github.devlibx.easy.http.util.Call;
 import io.github.devlibx.easy.http.util.Call.IResponseBuilderFunc;
+import io.github.devlibx.easy.http.util.Call.IResponseStreamBuilderFunc;
 import io.vavr.Function1;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import javax.ws.rs.core.MultivaluedMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class RequestObject {
+
+    /**
+     * Header to send remaining time (in ms) of the call deadline to the server
+     */
+    public static final String REMAINING_TIME_HEADER = "X-Request-Timeout-Ms";
+
     private String server;
     private String api;
     private String method;
@@ -28,12 +43,104 @@ public class RequestObject {
     private byte[] body;
     private IResponseBuilderFunc<?> responseBuilder;
 
-    public void preProcessHeaders() {
-        if (headers == null) {
-            headers = new HashMap<>();
+    /**
+     * If set then response is parsed directly from the response stream (see {@link ResponseObject#getDecodedBody()})
+     */
+    private IResponseStreamBuilderFunc<?> responseStreamBuilder;
+
+    /**
+     * Key used to pick a host if server has multiple hosts (see {@link Call.Builder#withRoutingKey(Object)})
+     */
+    private Object routingKey;
+
+    /**
+     * Deadline of this request (System.nanoTime based) - 0 if request does not have a deadline
+     */
+    private long deadlineNanos;
+
+    /**
+     * Pre-resolved server/api pair for this request. If it is not set then processor will resolve server and api
+     * from registry.
+     */
+    @JsonIgnore
+    private Endpoint endpoint;
+
+    /**
+     * Action to abort the running http request (set by request processor while http request is running)
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Runnable abortAction;
+
+    /**
+     * True if this request is aborted (e.g. it lost to a hedge request)
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean aborted;
+
+    /**
+     * @return a copy of this request with its own headers - e.g. to make a second request for the same call
+     */
+    public RequestObject copy() {
+        return toBuilder()
+                .headers(headers != null ? new HashMap<>(headers) : null)
+                .abortAction(null)
+                .aborted(false)
+                .build();
+    }
+
+    /**
+     * Abort the http request of this request - it is aborted right away if it is running, or as soon as it starts
+     */
+    public synchronized void abort() {
+        aborted = true;
+        if (abortAction != null) {
+            abortAction.run();
         }
-        if (!headers.containsKey("Content-Type") && !headers.containsKey("content-type")) {
-            headers.put("Content-Type", "application/json");
+    }
+
+    /**
+     * Set action to abort the running http request (null once request is complete). Action is run right away if this
+     * request is already aborted.
+     */
+    public synchronized void setAbortAction(Runnable abortAction) {
+        this.abortAction = abortAction;
+        if (aborted && abortAction != null) {
+            abortAction.run();
+        }
+    }
+
+    @JsonIgnore
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * @return time left (in ms) till deadline of this request - 0 if deadline is over, and Long.MAX_VALUE if request
+     * does not have a deadline
+     */
+    @JsonIgnore
+    public long getRemainingTimeMs() {
+        if (deadlineNanos == 0) {
+            return Long.MAX_VALUE;
         }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public void preProcessHeaders() {
+        if (headers != null && (headers.containsKey("Content-Type") || headers.containsKey("content-type"))) {
+            return;
+        }
+
+        // Headers are copied before adding a header - map may be the headers of the call (owned by the caller)
+        headers = headers != null ? new HashMap<>(headers) : new HashMap<>();
+        headers.put("Content-Type", "application/json");
     }
 }
@@ -25,6 +25,19 @@ public class ResponseObject {
     @JsonIgnore
     private Throwable exception;
 
+    /**
+     * Response object parsed directly from the response stream - only set for streaming response (body is not set
+     * in this case)
+     */
+    @JsonIgnore
+    private Object decodedBody;
+
+    /**
+     * Response headers (names in lower case, first value of a header) - only set for api which caches responses
+     */
+    @JsonIgnore
+    private Map<String, String> headers;
+
     public Map<String, Object> convertAsMap() {
         if (body == null) return null;
         return JsonUtils.convertAsMap(new String(body));
@@ -11,15 +11,29 @@ import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
+import io.github.devlibx.easy.http.helper.ExchangeLogger;
+import io.github.devlibx.easy.http.helper.LoadBalancer;
 import io.github.devlibx.easy.http.registry.ApiRegistry;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.github.devlibx.easy.http.registry.ServerRegistry;
 import io.github.devlibx.easy.http.sync.IHttpResponseProcessor;
+import io.github.devlibx.easy.http.util.Call.IResponseStreamBuilderFunc;
+import io.github.devlibx.easy.resilience.exception.RequestTimeoutException;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.ObservableEmitter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 @Slf4j
@@ -47,81 +61,126 @@ public class AsyncRequestProcessor implements IRequestProcessor {
 
     public Observable<ResponseObject> internalProcess(RequestObject requestObject) {
 
-        // Get api and server from registry
-        final Api api = apiRegistry.getOptional(requestObject.getApi()).orElseThrow(() -> new RuntimeException("Could not find api=" + requestObject.getApi()));
-        final Server server = serverRegistry.getOptional(api.getServer()).orElseThrow(() -> new RuntimeException("Could not find server=" + api.getServer()));
+        // Get api and server from pre-resolved endpoint (or from registry if request does not have a endpoint)
+        final Endpoint endpoint = requestObject.getEndpoint() != null
+                ? requestObject.getEndpoint()
+                : apiRegistry.resolveEndpoint(serverRegistry, requestObject.getServer(), requestObject.getApi());
+        if (endpoint.getServer() == null) {
+            throw new RuntimeException("Could not find server=" + endpoint.getApi().getServer());
+        }
 
         return Observable.create(observableEmitter -> {
-            processRequest(server, api, requestObject, observableEmitter);
+            processRequest(endpoint, requestObject, observableEmitter);
         });
     }
 
-    public void processRequest(Server server, Api api, RequestObject requestObject, ObservableEmitter<ResponseObject> observableEmitter) {
+    public void processRequest(Endpoint endpoint, RequestObject requestObject, ObservableEmitter<ResponseObject> observableEmitter) {
+        final Api api = endpoint.getApi();
 
-        // Get a web client to process this request
-        WebClient webClient = apiRegistry.getClient(server, api, WebClient.class);
-        long startTime = System.currentTimeMillis();
+        // Pick a host of the server (if server has multiple hosts) and get a web client to process this request
+        final int host = endpoint.selectHost(requestObject);
+        WebClient webClient = endpoint.getClient(host, WebClient.class);
+
+        // Build a URL - replace path param and add query params
+        URI uri;
+        try {
+            uri = api.getUriTemplate().toUri(endpoint.getBaseUrl(host), requestObject.getPathParam(), requestObject.getQueryParam(), stringHelper);
+        } catch (IllegalArgumentException e) {
+            observableEmitter.onError(new RuntimeException("Failed to generate URI", e));
+            return;
+        }
+
+        // Fail fast if deadline of this call is already over
+        if (requestObject.getRemainingTimeMs() == 0) {
+            observableEmitter.onError(new RequestTimeoutException("deadline of call is over", null));
+            return;
+        }
+
+        // Build request for http method of this api
+        WebClient.RequestHeadersSpec<?> requestSpec;
         switch (api.getMethod()) {
             case "GET": {
-                webClient
+                requestSpec = webClient
                         .get()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
-                        .headers(consumerHeaders(requestObject))
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .uri(uri)
+                        .headers(consumerHeaders(requestObject));
                 break;
             }
 
             case "DELETE": {
-                webClient
+                requestSpec = webClient
                         .delete()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
-                        .headers(consumerHeaders(requestObject))
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .uri(uri)
+                        .headers(consumerHeaders(requestObject));
                 break;
             }
 
             case "POST": {
-                webClient
+                requestSpec = webClient
                         .post()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
+                        .uri(uri)
                         .headers(consumerHeaders(requestObject))
-                        .bodyValue(requestObject.getBody())
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .bodyValue(requestObject.getBody());
                 break;
             }
 
             case "PUT": {
-                System.out.println("Putting data " + new String(requestObject.getBody()));
-                webClient
+                requestSpec = webClient
                         .put()
-                        .uri(api.getUrlForRequestObject(requestObject, stringHelper))
+                        .uri(uri)
                         .headers(consumerHeaders(requestObject))
-                        .bodyValue(requestObject.getBody())
-                        .retrieve()
-                        .bodyToMono(byte[].class)
-                        .doOnError(onErrorConsumer(server, api, observableEmitter, startTime))
-                        .subscribe(consumer(server, api, observableEmitter, startTime));
+                        .bodyValue(requestObject.getBody());
                 break;
             }
 
             default:
                 observableEmitter.onError(new RuntimeException("Api has a invalid HTTP method: " + api.getMethod()));
+                return;
+        }
+
+        // Make request - a streaming response is parsed directly from the response buffer
+        long startTime = System.currentTimeMillis();
+        HostCall hostCall = endpoint.getLoadBalancer() != null ? new HostCall(endpoint.getLoadBalancer(), host) : HostCall.NONE;
+        ExchangeLogger.Exchange exchange = endpoint.getExchangeLogger() != null
+                ? endpoint.getExchangeLogger().start(api.getMethod(), uri, requestObject)
+                : null;
+        Disposable disposable;
+        if (requestObject.getResponseStreamBuilder() != null) {
+            disposable = requestSpec
+                    .retrieve()
+                    .bodyToMono(DataBuffer.class)
+                    .doOnError(onErrorConsumer(endpoint, observableEmitter, startTime, hostCall, exchange))
+                    .subscribe(streamingConsumer(endpoint, requestObject.getResponseStreamBuilder(), observableEmitter, startTime, hostCall, exchange));
+        } else if (api.isCache()) {
+            // Api which caches responses needs response headers (and "304 Not Modified" of a revalidation)
+            disposable = requestSpec
+                    .retrieve()
+                    .toEntity(byte[].class)
+                    .doOnError(onErrorConsumer(endpoint, observableEmitter, startTime, hostCall, exchange))
+                    .subscribe(entityConsumer(endpoint, observableEmitter, startTime, hostCall, exchange));
+        } else {
+            disposable = requestSpec
+                    .retrieve()
+                    .bodyToMono(byte[].class)
+                    .doOnError(onErrorConsumer(endpoint, observableEmitter, startTime, hostCall, exchange))
+                    .subscribe(consumer(endpoint, observableEmitter, startTime, hostCall, exchange));
         }
+
+        // Cancel http call if this request is disposed (e.g. timeout in resilience processor)
+        observableEmitter.setCancellable(() -> {
+            disposable.dispose();
+            hostCall.cancel();
+        });
     }
 
-    private Consumer<byte[]> consumer(Server server, Api api, ObservableEmitter<ResponseObject> observableEmitter, long startTime) {
+    private Consumer<byte[]> consumer(Endpoint endpoint, ObservableEmitter<ResponseObject> observableEmitter, long startTime, HostCall hostCall, ExchangeLogger.Exchange exchange) {
         return data -> {
             // Log time taken by http client
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_time", System.currentTimeMillis() - startTime);
+            metrics.observe(endpoint.getHttpClientTimeMetric(), System.currentTimeMillis() - startTime);
+            hostCall.success();
+            if (exchange != null) {
+                exchange.complete(200, data, null);
+            }
 
             ResponseObject responseObject = new ResponseObject();
             responseObject.setBody(data);
@@ -131,13 +190,65 @@ public class AsyncRequestProcessor implements IRequestProcessor {
         };
     }
 
-    private Consumer<Throwable> onErrorConsumer(Server server, Api api, ObservableEmitter<ResponseObject> observableEmitter, long startTime) {
+    private Consumer<ResponseEntity<byte[]>> entityConsumer(Endpoint endpoint, ObservableEmitter<ResponseObject> observableEmitter, long startTime, HostCall hostCall, ExchangeLogger.Exchange exchange) {
+        return entity -> {
+            // Log time taken by http client
+            metrics.observe(endpoint.getHttpClientTimeMetric(), System.currentTimeMillis() - startTime);
+            hostCall.success();
+            if (exchange != null) {
+                exchange.complete(entity.getStatusCodeValue(), entity.getBody(), null);
+            }
+
+            Map<String, String> headers = new HashMap<>();
+            entity.getHeaders().forEach((name, values) -> {
+                if (!values.isEmpty()) {
+                    headers.putIfAbsent(name.toLowerCase(), values.get(0));
+                }
+            });
+            ResponseObject responseObject = new ResponseObject();
+            responseObject.setBody(entity.getBody());
+            responseObject.setStatusCode(entity.getStatusCodeValue());
+            responseObject.setHeaders(headers);
+            observableEmitter.onNext(responseObject);
+            observableEmitter.onComplete();
+        };
+    }
+
+    private Consumer<DataBuffer> streamingConsumer(Endpoint endpoint, IResponseStreamBuilderFunc<?> responseStreamBuilder, ObservableEmitter<ResponseObject> observableEmitter, long startTime, HostCall hostCall, ExchangeLogger.Exchange exchange) {
+        return dataBuffer -> {
+            // Log time taken by http client
+            metrics.observe(endpoint.getHttpClientTimeMetric(), System.currentTimeMillis() - startTime);
+            hostCall.success();
+            if (exchange != null) {
+                exchange.complete(200, null, null);
+            }
+
+            // Parse response from buffer - buffer is released when stream is closed
+            ResponseObject responseObject = new ResponseObject();
+            try (InputStream inputStream = dataBuffer.asInputStream(true)) {
+                responseObject.setDecodedBody(responseStreamBuilder.apply(inputStream));
+            } catch (Exception e) {
+                observableEmitter.onError(e);
+                return;
+            }
+            responseObject.setStatusCode(200);
+            responseObject.setSuccess(true);
+            observableEmitter.onNext(responseObject);
+            observableEmitter.onComplete();
+        };
+    }
+
+    private Consumer<Throwable> onErrorConsumer(Endpoint endpoint, ObservableEmitter<ResponseObject> observableEmitter, long startTime, HostCall hostCall, ExchangeLogger.Exchange exchange) {
         return throwable -> {
             // Log time taken by http client
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_error_time", System.currentTimeMillis() - startTime);
+            metrics.observe(endpoint.getHttpClientErrorTimeMetric(), System.currentTimeMillis() - startTime);
+            hostCall.failure(throwable);
 
-            log.trace("Got error for server={}, api={}", server, api, throwable);
-            ResponseObject responseObject = httpResponseProcessor.processException(server, api, throwable);
+            log.trace("Got error for server={}, api={}", endpoint.getServer(), endpoint.getApi(), throwable);
+            ResponseObject responseObject = httpResponseProcessor.processException(endpoint.getServer(), endpoint.getApi(), throwable);
+            if (exchange != null) {
+                exchange.complete(responseObject.getStatusCode(), responseObject.getBody(), throwable);
+            }
             EasyHttpRequestException exception = EasyHttpExceptions.convert(responseObject.getStatusCode(), throwable, responseObject);
             observableEmitter.onError(exception);
         };
@@ -149,10 +260,56 @@ public class AsyncRequestProcessor implements IRequestProcessor {
             requestObject.getHeaders().forEach((key, value) -> {
                 httpHeaders.add(key, stringHelper.stringify(value));
             });
+            if (requestObject.getDeadlineNanos() != 0) {
+                httpHeaders.set(RequestObject.REMAINING_TIME_HEADER, Long.toString(requestObject.getRemainingTimeMs()));
+            }
         };
     }
 
     @Override
     public void shutdown() {
     }
+
+    /**
+     * Records result of a call to a host in the load balancer (only once - a call may complete and be disposed)
+     */
+    private static final class HostCall {
+        private static final HostCall NONE = new HostCall(null, 0);
+        private final LoadBalancer loadBalancer;
+        private final int host;
+        private final long startNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private HostCall(LoadBalancer loadBalancer, int host) {
+            this.loadBalancer = loadBalancer;
+            this.host = host;
+            this.startNanos = System.nanoTime();
+            if (loadBalancer != null) {
+                loadBalancer.onStart(host);
+            }
+        }
+
+        private void success() {
+            if (loadBalancer != null && done.compareAndSet(false, true)) {
+                loadBalancer.onSuccess(host, System.nanoTime() - startNanos);
+            }
+        }
+
+        private void failure(Throwable throwable) {
+            if (loadBalancer != null && done.compareAndSet(false, true)) {
+                // A 4xx response is a problem of the request, host is working fine
+                if (throwable instanceof WebClientResponseException && ((WebClientResponseException) throwable).getRawStatusCode() < 500) {
+                    loadBalancer.onSuccess(host, System.nanoTime() - startNanos);
+                } else {
+                    loadBalancer.onFailure(host);
+                }
+            }
+        }
+
+        private void cancel() {
+            if (loadBalancer != null && done.compareAndSet(false, true)) {
+                loadBalancer.onCancel(host);
+            }
+        }
+    }
 }
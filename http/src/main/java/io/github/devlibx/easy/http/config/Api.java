@@ -1,16 +1,21 @@
 package io.github.devlibx.easy.http.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.google.common.base.Strings;
 import io.gitbub.devlibx.easy.helper.string.StringHelper;
 import io.github.devlibx.easy.http.IApiConfigPreProcessor;
 import io.github.devlibx.easy.http.RequestObject;
 import io.github.devlibx.easy.http.helper.ConcurrencyApiConfigPreProcessor;
+import io.github.devlibx.easy.http.helper.UriTemplate;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.text.StrSubstitutor;
 
 import javax.ws.rs.core.MultivaluedMap;
 import java.util.ArrayList;
@@ -31,6 +36,27 @@ public class Api {
      */
     public static final List<Integer> DEFAULT_ACCEPTABLE_CODES = Collections.unmodifiableList(Arrays.asList(200, 201));
 
+    /**
+     * Default set of status codes which are retried
+     */
+    public static final List<Integer> DEFAULT_RETRYABLE_STATUS_CODES = Collections.unmodifiableList(Arrays.asList(502, 503, 504));
+
+    /**
+     * Default set of headers whose values are not logged in exchange log
+     */
+    public static final List<String> DEFAULT_EXCHANGE_LOG_REDACTED_HEADERS = Collections.unmodifiableList(Arrays.asList(
+            "Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie"
+    ));
+
+    /**
+     * Default set of exceptions which are retried (request did not reach the server, or server closed a stale
+     * connection without a response)
+     */
+    public static final List<String> DEFAULT_RETRYABLE_EXCEPTIONS = Collections.unmodifiableList(Arrays.asList(
+            "java.net.ConnectException",
+            "org.apache.http.NoHttpResponseException"
+    ));
+
     /**
      * Name of this API
      */
@@ -49,13 +75,19 @@ public class Api {
     private boolean async;
 
     /**
-     * We will warm-up all the http connection pool and threads at the time of boot-up. If noWarmUp=true then this
-     * bootstrap process will not be done.
+     * We will open connections in the http connection pool at the time of boot-up (if "warmUpConnections" is set in
+     * server). If noWarmUp=true then this bootstrap process will not be done for this api.
      * <p>
-     * default = false i.e. warm-up connections and thread at bootup
+     * default = false i.e. warm-up connections at bootup
      */
     private boolean noWarmUp;
 
+    /**
+     * Fully qualified class name of the response of this api e.g. "com.example.UserResponse". It is only used to
+     * warm-up deserializer of the response at setup (see "warmUpCalls" in config). If not set then Map is used.
+     */
+    private String responseClass;
+
     /**
      * Name of the server to be used for this request
      */
@@ -106,12 +138,129 @@ public class Api {
      */
     private int timeout = 1000;
 
+    /**
+     * Default deadline of a call to this api (a call can set its own deadline - see
+     * {@link io.github.devlibx.easy.http.util.Call.Builder#withDeadline(long)}). It is the total time a call can take,
+     * including wait in bulkhead, connection lease, socket read and fallback call. Remaining time is also sent to the
+     * server in "X-Request-Timeout-Ms" header.
+     * <p>
+     * default = 0 i.e. no deadline (every step uses its own timeout)
+     */
+    private int deadline = 0;
+
     /**
      * RPS of this API. If this is set to non-zero then "ConcurrencyApiConfigPreProcessor" will execute and will
      * update you concurrency to optimize your required threads/semaphore.
      */
     private int rps = 0;
 
+    /**
+     * If true then calls to this API are limited to "rps" calls per second (client side token bucket).
+     * <p>
+     * default = false
+     */
+    private boolean rateLimit;
+
+    /**
+     * Max calls which can be made at once if rateLimit is true (default = 1 i.e. no burst)
+     */
+    private int rateLimitBurst = 1;
+
+    /**
+     * If rateLimit is true and rate limit is reached then a call waits at most this time for its turn, and fails with
+     * a rate limited error if it has to wait longer.
+     * <p>
+     * default = 0 i.e. fail fast
+     */
+    private int rateLimitMaxWaitMs = 0;
+
+    /**
+     * If true then concurrent GET calls with the same path params, query params and headers share one in-flight
+     * request, and all of them get its result (each call builds its own response object from the shared response).
+     * <p>
+     * The shared request is cancelled when all calls waiting for it are cancelled (e.g. timed out).
+     * <p>
+     * Note - streaming response is not used for these calls, because response bytes are needed to build response for
+     * each call (a warning is logged once per api if a streaming call is made).
+     * <p>
+     * default = false
+     */
+    private boolean coalesce;
+
+    /**
+     * If true then a second (hedge) request is sent if the first request did not finish in hedge delay, and the
+     * result of whichever request finishes first is used (other request is cancelled). Both requests are counted in
+     * the concurrency of this API. Use it only for idempotent APIs.
+     * <p>
+     * default = false
+     */
+    private boolean hedge;
+
+    /**
+     * Name of the path param (or query param) whose value is used as routing key. If server has multiple hosts then a
+     * call with a routing key always goes to the same host (consistent hashing with bounded load), so backends which
+     * keep per-key caches get a good hit rate. A call can also give a routing key explicitly
+     * (see {@link io.github.devlibx.easy.http.util.Call.Builder#withRoutingKey(Object)}).
+     * <p>
+     * default = null i.e. no routing key
+     */
+    private String routingKey;
+
+    /**
+     * Time after which hedge request is sent. If not set then "hedgePercentile" latency of recent requests is used.
+     */
+    private int hedgeDelayMs = 0;
+
+    /**
+     * Latency percentile used as hedge delay if hedgeDelayMs is not set (default = 95 i.e. p95)
+     */
+    private int hedgePercentile = 95;
+
+    /**
+     * Max hedge requests as percentage of calls (default = 10%)
+     */
+    private int hedgeBudgetPercent = 10;
+
+    /**
+     * Max attempts of a call (first attempt + retries). A failed attempt is retried only if it failed with a
+     * retryable status code or exception, circuit is not open, the call has time left in its deadline, and we have
+     * retry budget. Use it only for idempotent APIs.
+     * <p>
+     * If the call does not have a deadline then time of a call is bounded only by max attempts i.e. it can take up to
+     * maxAttempts * timeout plus backoff between attempts - set "deadline" to bound total time of a call with retries.
+     * <p>
+     * default = 1 i.e. no retry
+     */
+    private int maxAttempts = 1;
+
+    /**
+     * Status codes which are retried (default = 502, 503, 504)
+     */
+    private List<Integer> retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+
+    /**
+     * Exceptions which are retried - a class name (or simple class name) which matches a exception, or a super class
+     * of a exception, in the cause chain of the error (default = ConnectException, NoHttpResponseException)
+     */
+    private List<String> retryableExceptions = DEFAULT_RETRYABLE_EXCEPTIONS;
+
+    /**
+     * Backoff before the first retry - it is doubled for every next retry, and a random time between 0 and backoff
+     * is used (full jitter)
+     */
+    private int retryBackoffMs = 50;
+
+    /**
+     * Max backoff before a retry
+     */
+    private int retryMaxBackoffMs = 1000;
+
+    /**
+     * Max retries as percentage of calls (default = 10%) - this stops retries from adding load to a server which
+     * is already failing
+     */
+    private int retryBudgetPercent = 10;
+
     private List<String> configPreProcessors = Collections.singletonList(ConcurrencyApiConfigPreProcessor.class.getCanonicalName());
 
     /**
@@ -123,6 +272,191 @@ public class Api {
      */
     private float timeoutDeltaFactor = 0.0f;
 
+    /**
+     * If true then a sync API runs its calls in a executor shared by all APIs (instead of a thread pool of its own).
+     * concurrency and queueSize are still applied to this API - at most "concurrency" calls run at once (same as size
+     * of its connection pool) and up to "queueSize" calls wait for their turn.
+     * <p>
+     * default = false
+     */
+    private boolean sharedExecutor;
+
+    /**
+     * If true then a sync API runs each call in a virtual thread (Java 21+, falls back to shared executor on older
+     * runtime). Same as sharedExecutor - at most "concurrency" calls run at once (same as size of its connection
+     * pool) and up to "queueSize" calls wait for their turn.
+     * <p>
+     * default = false
+     */
+    private boolean virtualThreads;
+
+    /**
+     * If true then concurrency is only the initial limit of this API. The limit is changed at runtime using latency
+     * and timeouts of completed calls (AIMD) - it changes the permits of this API. Connection pool of this API has
+     * "maxConcurrency" connections (it is not resized with the limit).
+     * <p>
+     * Note - a sync API with adaptiveConcurrency runs its calls in the shared executor (same as sharedExecutor = true),
+     * because its own thread pool can not be resized.
+     * <p>
+     * default = false
+     */
+    private boolean adaptiveConcurrency;
+
+    /**
+     * Max limit if adaptiveConcurrency is true (default = 10 * concurrency if not set)
+     */
+    private int maxConcurrency;
+
+    /**
+     * Circuit breaker window - "COUNT_BASED" (last N calls) or "TIME_BASED" (calls of last N seconds)
+     */
+    private String circuitBreakerWindowType = "COUNT_BASED";
+
+    /**
+     * Size of circuit breaker window - no of calls (or no of seconds for a time based window)
+     */
+    private int circuitBreakerWindowSize = 100;
+
+    /**
+     * Min calls in window before circuit breaker computes failure and slow call rates
+     */
+    private int circuitBreakerMinimumCalls = 100;
+
+    /**
+     * Circuit is opened if this percentage of calls fail (default = 50)
+     */
+    private int circuitBreakerFailureRateThreshold = 50;
+
+    /**
+     * Circuit is opened if this percentage of calls are slow (default = 100). e.g. with timeout = 1000,
+     * circuitBreakerSlowCallDurationMs = 800 and circuitBreakerSlowCallRateThreshold = 50, circuit is opened if half
+     * of the calls take more than 800ms - a server which is close to timeout would otherwise hold all permits of this
+     * API without opening the circuit.
+     */
+    private int circuitBreakerSlowCallRateThreshold = 100;
+
+    /**
+     * A call which takes more than this time is a slow call (default = 0 i.e. slow calls are not tracked)
+     */
+    private int circuitBreakerSlowCallDurationMs = 0;
+
+    /**
+     * No of calls allowed in half open state to check if circuit can be closed (default = 10)
+     */
+    private int circuitBreakerHalfOpenCalls = 10;
+
+    /**
+     * Time for which circuit stays open before calls are allowed in half open state (default = 100)
+     */
+    private int circuitBreakerOpenStateWaitMs = 100;
+
+    /**
+     * Fraction of calls (0 - 1) whose request and response are logged to "io.github.devlibx.easy.http.exchange"
+     * logger at INFO level (see {@link io.github.devlibx.easy.http.helper.ExchangeLogger}).
+     * <p>
+     * default = 0 i.e. exchanges are not logged
+     */
+    private double exchangeLogSampleRate = 0;
+
+    /**
+     * Max bytes of request and response body logged in exchange log (default = 1024)
+     */
+    private int exchangeLogMaxBodyBytes = 1024;
+
+    /**
+     * Headers whose values are not logged in exchange log (default = Authorization, Proxy-Authorization, Cookie,
+     * Set-Cookie)
+     */
+    private List<String> exchangeLogRedactedHeaders = DEFAULT_EXCHANGE_LOG_REDACTED_HEADERS;
+
+    /**
+     * Name of a bulk api (of same server) which gives many items in one call e.g. "GET /users?ids=1,2,3". If set then
+     * single key calls of this api are collected for "batchMaxDelayMs" (or till we have "batchMaxKeys" keys), and sent
+     * as one call to the bulk api - each call gets its own item from the bulk response. Only a call which has nothing
+     * but "batchKey" param (no other param, no header and no body) is batched.
+     * <p>
+     * default = null i.e. no batching
+     */
+    private String batchApi;
+
+    /**
+     * Path param (or query param) of this api which has the key e.g. "id"
+     */
+    private String batchKey;
+
+    /**
+     * Query param of bulk api in which keys are sent e.g. "ids" (keys are joined with "batchKeySeparator")
+     */
+    private String batchParam;
+
+    /**
+     * Separator to join keys in bulk call (default = ",")
+     */
+    private String batchKeySeparator = ",";
+
+    /**
+     * Max keys in one bulk call (default = 100)
+     */
+    private int batchMaxKeys = 100;
+
+    /**
+     * Max time a call waits for other calls to join its batch (default = 5)
+     */
+    private int batchMaxDelayMs = 5;
+
+    /**
+     * If bulk api gives a list of items then this field of a item has its key (default = "id"). If bulk api gives a
+     * map then keys of the map are used.
+     */
+    private String batchResponseKeyField = "id";
+
+    /**
+     * Class name of a {@link io.github.devlibx.easy.http.IBatchKeyExtractor} to get the key of a item in bulk response
+     * (used in place of "batchResponseKeyField" if set)
+     */
+    private String batchKeyExtractor;
+
+    /**
+     * If true then GET responses of this api are cached (as per "Cache-Control", "Expires" and "ETag" of the
+     * response). A call which is answered from cache does not go to resilience processor (bulkhead, circuit breaker)
+     * or rate limiter.
+     */
+    private boolean cache;
+
+    /**
+     * How long a cached response is fresh - if set (greater than 0) then it is used in place of "Cache-Control" and
+     * "Expires" of the response
+     */
+    private int cacheTtlMs = 0;
+
+    /**
+     * Max bytes (of response bodies) kept in cache of this api - least recently used responses are removed first
+     * (default = 10 MB)
+     */
+    private long cacheMaxBytes = 10 * 1024 * 1024;
+
+    /**
+     * Time after a cached response is not fresh in which it is still given to the call, and is revalidated in
+     * background. "stale-while-revalidate" of the response is used in place of this if response has it.
+     */
+    private int cacheStaleWhileRevalidateMs = 0;
+
+    /**
+     * Request headers which are part of the cache key (e.g. "Accept-Language") - by default only path and query are
+     * used as cache key
+     */
+    private List<String> cacheKeyHeaders = new ArrayList<>();
+
+    /**
+     * Compiled path (built from path on first use)
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile UriTemplate uriTemplate;
+
     public String getUrlForRequestObject(RequestObject requestObject, StringHelper stringHelper) {
         return getUrlWithPathParamAndQueryParam(requestObject.getPathParam(), requestObject.getQueryParam(), stringHelper);
     }
@@ -132,31 +466,40 @@ public class Api {
             MultivaluedMap<String, Object> queryParam,
             StringHelper stringHelper
     ) {
+        return getUriTemplate().expand(pathParam, queryParam, stringHelper);
+    }
 
-        // Build URI
-        String uri = getPath();
-        if (!Strings.isNullOrEmpty(uri) && pathParam != null) {
-            uri = StrSubstitutor.replace(getPath(), pathParam);
-        }
-        if (Strings.isNullOrEmpty(uri)) {
-            uri = "/";
+    /**
+     * @return compiled template for the path of this api (path is compiled only once)
+     */
+    @JsonIgnore
+    public UriTemplate getUriTemplate() {
+        UriTemplate template = uriTemplate;
+        if (template == null) {
+            template = UriTemplate.compile(path);
+            uriTemplate = template;
         }
-        uri = uri.startsWith("/") ? uri : "/" + uri;
-
-        //
-        StringBuilder sb = new StringBuilder();
-        if (queryParam != null) {
-            queryParam.forEach((key, values) -> {
-                values.forEach(value -> {
-                    if (!sb.toString().isEmpty()) {
-                        sb.append("&");
-                    }
-                    sb.append(key).append("=").append(value);
-                });
-            });
+        return template;
+    }
+
+    /**
+     * Set api path - this will reset the compiled template of this path
+     */
+    public void setPath(String path) {
+        this.path = path;
+        this.uriTemplate = null;
+    }
+
+    /**
+     * @return size of the connection pool of this api - "concurrency", or max limit if adaptiveConcurrency is true (so
+     * that pool is not resized when limit changes)
+     */
+    @JsonIgnore
+    public int getMaxConnections() {
+        if (adaptiveConcurrency) {
+            return maxConcurrency > 0 ? maxConcurrency : 10 * concurrency;
         }
-        String qp = sb.toString();
-        return uri + (Strings.isNullOrEmpty(qp) ? "" : "?" + qp);
+        return concurrency;
     }
 
     /**
@@ -18,6 +18,21 @@ public class Config {
     private Map<String, Server> servers;
     private Map<String, Api> apis;
 
+    /**
+     * Max time to wait for each warm-up step at setup - connection warm-up (see
+     * {@link Server#getWarmUpConnections()}) and call warm-up (see "warmUpCalls"). If not set then 2 sec is used.
+     */
+    private int warmUpTimeoutMs;
+
+    /**
+     * No of synthetic calls made for every api at setup through the full call pipeline (resilience, rx chain and
+     * response parsing) with a loopback transport i.e. no request is sent to server. This makes JIT compile the call
+     * path and Jackson build deserializer of "api.responseClass" before real calls come.
+     * <p>
+     * default = 0 i.e. no call warm-up
+     */
+    private int warmUpCalls;
+
     public void addServer(Server server) {
         if (servers == null) {
             servers = new HashMap<>();
@@ -1,11 +1,16 @@
 package io.github.devlibx.easy.http.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,6 +35,36 @@ public class Server {
      */
     private int port = 80;
 
+    /**
+     * Hosts of this server if server has more than one instance e.g. ["10.0.0.1:8080", "10.0.0.2:8080"]. If port is
+     * not given in a host then "port" is used. If set then "host" is not used and calls are load balanced between
+     * these hosts.
+     */
+    private List<String> hosts;
+
+    /**
+     * How to pick a host if server has multiple hosts - "LEAST_IN_FLIGHT" or "EWMA" (EWMA latency). Both use power of
+     * two choices.
+     * <p>
+     * Default = LEAST_IN_FLIGHT
+     */
+    @Builder.Default
+    private String loadBalancer = "LEAST_IN_FLIGHT";
+
+    /**
+     * A host is ejected if it fails (5xx or timeout) these many times in a row. If 0 then hosts are never ejected.
+     * <p>
+     * Default = 5
+     */
+    @Builder.Default
+    private int ejectAfterConsecutiveFailures = 5;
+
+    /**
+     * Time for which a ejected host is not used. Default = 30 Sec
+     */
+    @Builder.Default
+    private int ejectionTimeMs = 30 * 1000;
+
     /**
      * Set TTL to polled http connection. If -1 then no TTL. Default is 60 Sec;
      */
@@ -48,6 +83,47 @@ public class Server {
      */
     private int connectionRequestTimeout = 100;
 
+    /**
+     * If true then all apis of this server share one connection pool (per host), so connections are reused across
+     * apis. Concurrency of each api is still limited by its bulkhead.
+     * <p>
+     * default = false i.e. every api has its own connection pool
+     */
+    private boolean sharedConnectionPool = false;
+
+    /**
+     * Size of the shared connection pool (used if sharedConnectionPool = true). If not set then sum of concurrency of
+     * all apis of this server is used for sync apis, and reactor-netty default is used for async apis.
+     */
+    private int maxConnections = 0;
+
+    /**
+     * No of connections to open (per api connection pool and per host) at setup, so that first calls after start do
+     * not pay for connect and TLS handshake. No request is sent to the server for this.
+     * <p>
+     * default = 0 i.e. no warm-up
+     */
+    private int warmUpConnections = 0;
+
+    /**
+     * If > 0 then all calls to this server (from all APIs) are limited to these many calls per second.
+     * <p>
+     * default = 0 i.e. no limit
+     */
+    private int rps = 0;
+
+    /**
+     * Max calls which can be made at once if rps is set (default = 1 i.e. no burst)
+     */
+    @Builder.Default
+    private int rateLimitBurst = 1;
+
+    /**
+     * If rps is set and rate limit is reached then a call waits at most this time for its turn (default = 0 i.e. fail
+     * fast)
+     */
+    private int rateLimitMaxWaitMs = 0;
+
     /**
      * A http request needs to connect to a server first. This timeout specifies how long this
      * connection creation should take. Beyond this time it will fail with timeout.
@@ -70,4 +146,25 @@ public class Server {
         sb.append(port);
         return sb.toString();
     }
+
+    /**
+     * @return urls of all hosts of this server (only "getUrl()" if server does not have multiple hosts)
+     */
+    @JsonIgnore
+    public List<String> getUrls() {
+        if (hosts == null || hosts.isEmpty()) {
+            return Collections.singletonList(getUrl());
+        }
+        List<String> urls = new ArrayList<>();
+        for (String h : hosts) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(isHttps ? "https://" : "http://");
+            sb.append(h);
+            if (h.indexOf(':') < 0) {
+                sb.append(":").append(port);
+            }
+            urls.add(sb.toString());
+        }
+        return urls;
+    }
 }
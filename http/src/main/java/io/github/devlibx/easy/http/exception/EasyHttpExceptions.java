@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.resilience.exception.CircuitOpenException;
 import io.github.devlibx.easy.resilience.exception.OverflowException;
+import io.github.devlibx.easy.resilience.exception.RateLimitedException;
 import io.github.devlibx.easy.resilience.exception.RequestTimeoutException;
 import io.github.devlibx.easy.resilience.exception.ResilienceException;
 import io.netty.handler.timeout.ReadTimeoutException;
@@ -186,6 +187,16 @@ public class EasyHttpExceptions {
         }
     }
 
+    /**
+     * This error is thrown when client side rate limit of api or server is reached (see "api.rateLimit" and
+     * "server.rps" properties)
+     */
+    public static class EasyResilienceRateLimitedException extends EasyResilienceException {
+        public EasyResilienceRateLimitedException(Throwable throwable) {
+            super(throwable);
+        }
+    }
+
     /**
      * Helper to convert ResilienceException to Easy Exceptions
      */
@@ -196,6 +207,8 @@ public class EasyHttpExceptions {
             return Optional.of(new EasyResilienceOverflowException(e));
         } else if (e instanceof CircuitOpenException) {
             return Optional.of(new EasyResilienceCircuitOpenException(e));
+        } else if (e instanceof RateLimitedException) {
+            return Optional.of(new EasyResilienceRateLimitedException(e));
         } else if (e instanceof ResilienceException) {
             return Optional.of(new EasyResilienceException(e));
         } else {
@@ -3,11 +3,13 @@ package io.github.devlibx.easy.http.helper;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -15,9 +17,11 @@ import java.util.concurrent.TimeUnit;
 @SuppressWarnings("unchecked")
 public class AsyncHttpClientBuilder implements IClientBuilder {
     private final Map<String, WebClient> httpClientMap;
+    private final Map<String, ConnectionProvider> sharedConnectionProviderMap;
 
     public AsyncHttpClientBuilder() {
         this.httpClientMap = new HashMap<>();
+        this.sharedConnectionProviderMap = new HashMap<>();
     }
 
     @Override
@@ -28,28 +32,49 @@ public class AsyncHttpClientBuilder implements IClientBuilder {
 
     @Override
     public <T> T buildClient(Server server, Api api, Class<T> cls) {
+        return buildClient(server, api, server.getUrl(), cls);
+    }
+
+    @Override
+    public <T> T buildClient(Server server, Api api, String baseUrl, Class<T> cls) {
         if (!cls.isAssignableFrom(WebClient.class)) {
             throw new RuntimeException("cls type must be CloseableHttpClient");
         }
 
-        String key = server.getName() + "-" + api.getName();
+        String key = server.getName() + "-" + api.getName() + "-" + baseUrl;
         if (httpClientMap.containsKey(key)) {
             return (T) httpClientMap.get(key);
         }
 
-        HttpClient httpClient = HttpClient.create(
-                ConnectionProvider.create(
-                        server.getName() + "-" + api.getName(),
-                        api.getConcurrency()
-                )
-        ).tcpConfiguration(tcpClient ->
-                tcpClient.doOnConnected(connection -> connection
-                        .addHandlerLast(new ReadTimeoutHandler(api.getTimeout(), TimeUnit.MILLISECONDS))
-                )
-        );
+        ClientHttpConnector connector;
+        if (server.isSharedConnectionPool()) {
+            // Connections are shared by all apis of the server host - so read timeout of api is set per request (and
+            // not as a handler on the connection)
+            ConnectionProvider connectionProvider = sharedConnectionProviderMap.computeIfAbsent(
+                    server.getName() + "-" + baseUrl,
+                    name -> ConnectionProvider.create(
+                            name,
+                            server.getMaxConnections() > 0 ? server.getMaxConnections() : ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS
+                    )
+            );
+            connector = new ReactorClientHttpConnector(
+                    HttpClient.create(connectionProvider).responseTimeout(Duration.ofMillis(api.getTimeout()))
+            );
+        } else {
+            // Pool has "api.getMaxConnections()" connections - a adaptive concurrency limit is applied by bulkhead of
+            // the api, and pool is not resized when limit changes (so pooled connections are kept)
+            HttpClient httpClient = HttpClient.create(
+                    ConnectionProvider.create(key, api.getMaxConnections())
+            ).tcpConfiguration(tcpClient ->
+                    tcpClient.doOnConnected(connection -> connection
+                            .addHandlerLast(new ReadTimeoutHandler(api.getTimeout(), TimeUnit.MILLISECONDS))
+                    )
+            );
+            connector = new ReactorClientHttpConnector(httpClient);
+        }
         WebClient webClient = WebClient.builder()
-                .baseUrl(server.getUrl())
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(baseUrl)
+                .clientConnector(connector)
                 .build();
 
         httpClientMap.put(key, webClient);
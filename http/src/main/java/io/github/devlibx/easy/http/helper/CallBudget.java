@@ -0,0 +1,48 @@
+package io.github.devlibx.easy.http.helper;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of extra requests (retries or hedge requests) of a api.
+ * <p>
+ * Every call adds "percent" / 100 credits and a extra request takes 1 credit, so extra requests are at most "percent" %
+ * of calls (with a burst of {@value #MAX_BURST} extra requests).
+ */
+public class CallBudget {
+    private static final int MAX_BURST = 10;
+
+    private final int percent;
+
+    /**
+     * Credits in 1/100 of a extra request
+     */
+    private final AtomicLong credits = new AtomicLong();
+
+    public CallBudget(int percent) {
+        this.percent = Math.max(0, percent);
+    }
+
+    /**
+     * Record a new call - adds credits for extra requests
+     */
+    public void onCall() {
+        if (percent == 0) return;
+        long current;
+        do {
+            current = credits.get();
+            if (current >= MAX_BURST * 100) return;
+        } while (!credits.compareAndSet(current, Math.min(MAX_BURST * 100, current + percent)));
+    }
+
+    /**
+     * @return true if we have budget to make a extra request (budget is taken)
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = credits.get();
+            if (current < 100) return false;
+        } while (!credits.compareAndSet(current, current - 100));
+        return true;
+    }
+}
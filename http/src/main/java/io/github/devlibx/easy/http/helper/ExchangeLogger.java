@@ -0,0 +1,168 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.config.Api;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs request/response exchanges of a api to "{@value #LOGGER_NAME}" logger (INFO level).
+ * <p>
+ * Only "api.exchangeLogSampleRate" of calls are logged, bodies are cut to "api.exchangeLogMaxBodyBytes" bytes, and
+ * values of "api.exchangeLogRedactedHeaders" are not logged. A body is never decoded - it is logged as text.
+ * <p>
+ * A api which does not log exchanges does not have a exchange logger, so a call pays nothing for it. For a sampled
+ * call the exchange is copied on the calling thread, and it is formatted and written by a background thread. If the
+ * background thread can not keep up then exchanges are dropped.
+ */
+public class ExchangeLogger {
+    public static final String LOGGER_NAME = "io.github.devlibx.easy.http.exchange";
+    private static final Logger EXCHANGE_LOG = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final int QUEUE_SIZE = 1024;
+    private static final String REDACTED = "****";
+
+    private final String server;
+    private final String api;
+    private final double sampleRate;
+    private final int maxBodyBytes;
+    private final Set<String> redactedHeaders;
+
+    public ExchangeLogger(String server, Api api) {
+        this.server = server;
+        this.api = api.getName();
+        this.sampleRate = api.getExchangeLogSampleRate();
+        this.maxBodyBytes = Math.max(0, api.getExchangeLogMaxBodyBytes());
+        this.redactedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (api.getExchangeLogRedactedHeaders() != null) {
+            this.redactedHeaders.addAll(api.getExchangeLogRedactedHeaders());
+        }
+    }
+
+    /**
+     * @return exchange logger for this api - null if api does not log exchanges (or exchange logger is not enabled)
+     */
+    public static ExchangeLogger create(String server, Api api) {
+        if (api.getExchangeLogSampleRate() <= 0 || !EXCHANGE_LOG.isInfoEnabled()) {
+            return null;
+        }
+        return new ExchangeLogger(server, api);
+    }
+
+    /**
+     * Start a exchange - request is copied now (headers may be changed by a retry or fallback later)
+     *
+     * @return exchange to complete with the response - null if this call is not sampled
+     */
+    public Exchange start(String method, URI uri, RequestObject requestObject) {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        Map<String, Object> headers = new LinkedHashMap<>();
+        if (requestObject.getHeaders() != null) {
+            requestObject.getHeaders().forEach((key, value) -> headers.put(key, redactedHeaders.contains(key) ? REDACTED : value));
+        }
+        byte[] body = requestObject.getBody();
+        return new Exchange(method, uri, headers, truncate(body), body != null ? body.length : 0);
+    }
+
+    private byte[] truncate(byte[] body) {
+        if (body == null || body.length <= maxBodyBytes) {
+            return body;
+        }
+        return Arrays.copyOf(body, maxBodyBytes);
+    }
+
+    /**
+     * A sampled exchange
+     */
+    public class Exchange {
+        private final long startNanos = System.nanoTime();
+        private final String method;
+        private final URI uri;
+        private final Map<String, Object> headers;
+        private final byte[] requestBody;
+        private final int requestBodySize;
+        private int statusCode;
+        private byte[] responseBody;
+        private int responseBodySize;
+        private long timeTakenMs;
+        private Throwable error;
+
+        private Exchange(String method, URI uri, Map<String, Object> headers, byte[] requestBody, int requestBodySize) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+            this.requestBody = requestBody;
+            this.requestBodySize = requestBodySize;
+        }
+
+        /**
+         * Complete this exchange and write it (in background)
+         *
+         * @param responseBody response body - null if there is no body (or response was streamed)
+         */
+        public void complete(int statusCode, byte[] responseBody, Throwable error) {
+            this.timeTakenMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            this.statusCode = statusCode;
+            this.responseBody = truncate(responseBody);
+            this.responseBodySize = responseBody != null ? responseBody.length : 0;
+            this.error = error;
+            WriterHolder.WRITER.execute(this::write);
+        }
+
+        private void write() {
+            if (error != null) {
+                EXCHANGE_LOG.info("{}", this, error);
+            } else {
+                EXCHANGE_LOG.info("{}", this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "server=" + server
+                    + ", api=" + api
+                    + ", method=" + method
+                    + ", uri=" + uri
+                    + ", requestHeaders=" + headers
+                    + ", requestBody=" + bodyAsString(requestBody, requestBodySize)
+                    + ", statusCode=" + statusCode
+                    + ", responseBody=" + bodyAsString(responseBody, responseBodySize)
+                    + ", timeTakenMs=" + timeTakenMs;
+        }
+
+        private String bodyAsString(byte[] body, int size) {
+            if (body == null) {
+                return null;
+            }
+            String text = new String(body, StandardCharsets.UTF_8);
+            return size > body.length ? text + "...(" + size + " bytes)" : text;
+        }
+    }
+
+    private static class WriterHolder {
+        private static final ThreadPoolExecutor WRITER = new ThreadPoolExecutor(
+                1, 1,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "easy-http-exchange-logger");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy()
+        );
+    }
+}
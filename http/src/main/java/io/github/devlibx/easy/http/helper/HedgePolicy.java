@@ -0,0 +1,74 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.config.Api;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hedging state of a api - when to send a hedge request and how many hedge requests can be sent.
+ * <p>
+ * Hedge delay is "api.hedgeDelayMs" if it is set, otherwise it is the "api.hedgePercentile" latency of the last
+ * {@value #SAMPLES} successful requests (no hedge is sent till we have {@value #MIN_SAMPLES} samples).
+ * <p>
+ * Hedge requests are at most "api.hedgeBudgetPercent" % of calls (see {@link CallBudget}).
+ */
+public class HedgePolicy {
+    private static final int SAMPLES = 1024;
+    private static final int MIN_SAMPLES = 64;
+    private static final int RECOMPUTE_EVERY = 128;
+
+    private final long fixedDelayMs;
+    private final int percentile;
+    private final CallBudget budget;
+
+    private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+    private final AtomicLong sampleCount = new AtomicLong();
+    private volatile long percentileDelayMs = Long.MAX_VALUE;
+
+    public HedgePolicy(Api api) {
+        this.fixedDelayMs = api.getHedgeDelayMs();
+        this.percentile = Math.min(99, Math.max(1, api.getHedgePercentile()));
+        this.budget = new CallBudget(api.getHedgeBudgetPercent());
+    }
+
+    /**
+     * @return time (in ms) after which a hedge request is sent (Long.MAX_VALUE if we do not know it yet)
+     */
+    public long getDelayMs() {
+        return fixedDelayMs > 0 ? fixedDelayMs : percentileDelayMs;
+    }
+
+    /**
+     * Record a new call - adds credits for hedge requests
+     */
+    public void onCall() {
+        budget.onCall();
+    }
+
+    /**
+     * @return true if we have budget to send a hedge request (budget is taken)
+     */
+    public boolean tryAcquireHedge() {
+        return budget.tryAcquire();
+    }
+
+    /**
+     * Record latency of a successful request
+     */
+    public void recordLatency(long latencyMs) {
+        if (fixedDelayMs > 0) return;
+        long count = sampleCount.incrementAndGet();
+        latencies.set((int) ((count - 1) % SAMPLES), latencyMs);
+        if (count == MIN_SAMPLES || (count > MIN_SAMPLES && count % RECOMPUTE_EVERY == 0)) {
+            int size = (int) Math.min(count, SAMPLES);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            percentileDelayMs = sorted[Math.min(size - 1, size * percentile / 100)];
+        }
+    }
+}
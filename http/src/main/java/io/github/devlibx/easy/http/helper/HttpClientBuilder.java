@@ -6,11 +6,22 @@ import io.github.devlibx.easy.http.config.Server;
 import io.opentracing.contrib.apache.http.client.TracingHttpClientBuilder;
 import io.opentracing.util.GlobalTracer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -20,9 +31,17 @@ import java.util.concurrent.TimeUnit;
 public class HttpClientBuilder implements IClientBuilder {
     private final ScheduledExecutorService executorService;
     private final Map<String, CloseableHttpClient> httpClientMap;
+    private final Map<String, CloseableHttpClient> sharedHttpClientMap;
+    private final Map<String, PoolingHttpClientConnectionManager> sharedConnectionManagerMap;
+    private final Map<String, PoolingHttpClientConnectionManager> hostConnectionManagerMap;
+    private final Set<PoolingHttpClientConnectionManager> warmedUpConnectionManagers;
 
     public HttpClientBuilder() {
         this.httpClientMap = new ConcurrentHashMap<>();
+        this.sharedHttpClientMap = new ConcurrentHashMap<>();
+        this.sharedConnectionManagerMap = new ConcurrentHashMap<>();
+        this.hostConnectionManagerMap = new ConcurrentHashMap<>();
+        this.warmedUpConnectionManagers = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
         executorService = Executors.newScheduledThreadPool(2);
     }
 
@@ -32,26 +51,79 @@ public class HttpClientBuilder implements IClientBuilder {
         return "HTTP".equals(api.getType()) || "HTTPS".equals(api.getType());
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public <T> T buildClient(Server server, Api api, Class<T> cls) {
+        return buildClient(server, api, server.getUrl(), cls);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T buildClient(Server server, Api api, String baseUrl, Class<T> cls) {
         if (!cls.isAssignableFrom(CloseableHttpClient.class)) {
             throw new RuntimeException("cls type must be CloseableHttpClient");
         }
 
-        CloseableHttpClient client;
-        if (!httpClientMap.containsKey(server.getName() + "-" + api.getName())) {
-            client = buildHttpClient(server, api);
-            httpClientMap.put(server.getName() + "-" + api.getName(), client);
+        String key = server.getName() + "-" + api.getName() + "-" + baseUrl;
+        if (!httpClientMap.containsKey(key)) {
+            if (server.isSharedConnectionPool()) {
+                httpClientMap.put(key, buildSharedHttpClient(server, api, baseUrl));
+                hostConnectionManagerMap.put(key, sharedConnectionManagerMap.get(server.getName() + "-" + baseUrl));
+            } else {
+                PoolingHttpClientConnectionManager connectionManager = buildApiConnectionManager(server, api);
+                httpClientMap.put(key, buildHttpClient(connectionManager));
+                hostConnectionManagerMap.put(key, connectionManager);
+            }
+        }
+        return (T) httpClientMap.get(key);
+    }
+
+    @Override
+    public int warmUp(Server server, Api api, String baseUrl, int connections, long timeoutMs) {
+        PoolingHttpClientConnectionManager connectionManager = hostConnectionManagerMap.get(server.getName() + "-" + api.getName() + "-" + baseUrl);
+        if (connectionManager == null || !warmedUpConnectionManagers.add(connectionManager)) {
+            return 0;
+        }
+
+        URI uri = URI.create(baseUrl);
+        HttpRoute route = new HttpRoute(new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme()), null, "https".equals(uri.getScheme()));
+        long deadline = System.currentTimeMillis() + timeoutMs;
+
+        // Take connections from pool (and keep them till all are open) so that we get new connections every time
+        List<HttpClientConnection> opened = new ArrayList<>();
+        int openCount = 0;
+        try {
+            int count = Math.min(connections, connectionManager.getMaxPerRoute(route));
+            for (int i = 0; i < count; i++) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) break;
+                ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+                HttpClientConnection connection = connectionRequest.get(remaining, TimeUnit.MILLISECONDS);
+                opened.add(connection);
+                if (!connection.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, (int) Math.max(1, Math.min(server.getConnectTimeout(), remaining)), context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("failed to open connection for warm-up: server={}, api={}, host={}, error={}", server.getName(), api.getName(), baseUrl, e.getMessage());
+        } finally {
+            for (HttpClientConnection connection : opened) {
+                if (connection.isOpen()) openCount++;
+                connectionManager.releaseConnection(connection, null, server.getIdleConnectionTimeoutInSec(), TimeUnit.SECONDS);
+            }
         }
-        return (T) httpClientMap.get(server.getName() + "-" + api.getName());
+        return openCount;
     }
 
     @Override
     public void shutdown() {
         Safe.safe(executorService::shutdown);
         Safe.safe(() -> {
+            // A shared client is used by many apis - close it only once
+            Set<CloseableHttpClient> closed = Collections.newSetFromMap(new IdentityHashMap<>());
             httpClientMap.forEach((key, closeableHttpClient) -> {
+                if (!closed.add(closeableHttpClient)) return;
                 log.info("Closing connections: key={}", key);
                 Safe.safe(() -> {
                     try {
@@ -64,20 +136,55 @@ public class HttpClientBuilder implements IClientBuilder {
     }
 
     public CloseableHttpClient buildHttpClient(Server server, Api api) {
+        return buildHttpClient(buildApiConnectionManager(server, api));
+    }
+
+    /**
+     * Build connection pool of a api with "api.getMaxConnections()" connections - calls of a api which run at once are
+     * limited to its concurrency (or adaptive limit) in every mode (thread pool, shared executor or virtual threads),
+     * so a running call does not wait for a connection
+     */
+    private PoolingHttpClientConnectionManager buildApiConnectionManager(Server server, Api api) {
+        PoolingHttpClientConnectionManager connectionManager = buildConnectionManager(server);
+        connectionManager.setMaxTotal(api.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(api.getMaxConnections());
+        return connectionManager;
+    }
+
+    /**
+     * Get the client (and connection pool) shared by all apis of a server host. Pool size is "server.maxConnections"
+     * or, if it is not set, sum of concurrency of all apis using this pool. Per api limit is enforced by bulkhead of
+     * the api, so the pool is not changed by adaptive concurrency of a api.
+     */
+    private synchronized CloseableHttpClient buildSharedHttpClient(Server server, Api api, String baseUrl) {
+        String poolKey = server.getName() + "-" + baseUrl;
+        boolean newPool = !sharedConnectionManagerMap.containsKey(poolKey);
+        PoolingHttpClientConnectionManager connectionManager = sharedConnectionManagerMap.computeIfAbsent(poolKey, key -> buildConnectionManager(server));
+
+        int maxConnections = server.getMaxConnections() > 0
+                ? server.getMaxConnections()
+                : (newPool ? 0 : connectionManager.getMaxTotal()) + api.getConcurrency();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        return sharedHttpClientMap.computeIfAbsent(poolKey, key -> buildHttpClient(connectionManager));
+    }
+
+    private PoolingHttpClientConnectionManager buildConnectionManager(Server server) {
         PoolingHttpClientConnectionManager connectionManager;
         if (server.getPollingConnectionTtlInMs() > 0) {
             connectionManager = new PoolingHttpClientConnectionManager(server.getPollingConnectionTtlInMs(), TimeUnit.MILLISECONDS);
         } else {
             connectionManager = new PoolingHttpClientConnectionManager();
         }
-        connectionManager.setMaxTotal(api.getConcurrency());
-        connectionManager.setDefaultMaxPerRoute(api.getConcurrency());
 
         executorService.scheduleWithFixedDelay(() -> {
             connectionManager.closeExpiredConnections();
             connectionManager.closeIdleConnections(server.getIdleConnectionTimeoutInSec(), TimeUnit.SECONDS);
         }, 10, 30, TimeUnit.SECONDS);
+        return connectionManager;
+    }
 
+    private CloseableHttpClient buildHttpClient(PoolingHttpClientConnectionManager connectionManager) {
         TracingHttpClientBuilder builder = new TracingHttpClientBuilder().withTracer(GlobalTracer.get());
         builder.setDefaultRequestConfig(RequestConfig.custom().setRedirectsEnabled(true).build());
         builder.setConnectionManager(connectionManager);
@@ -15,6 +15,23 @@ public interface IClientBuilder {
      */
     <T> T buildClient(Server server, Api api, Class<T> cls);
 
+    /**
+     * @return build a client for one host (base url) of server and api - every host gets its own connection pool
+     */
+    default <T> T buildClient(Server server, Api api, String baseUrl, Class<T> cls) {
+        return buildClient(server, api, cls);
+    }
+
+    /**
+     * Open connections in the connection pool of a host of server and api (no request is sent), so that first calls
+     * do not pay for connect and TLS handshake.
+     *
+     * @return no of connections opened (0 if client does not support it or pool is already warmed up)
+     */
+    default int warmUp(Server server, Api api, String baseUrl, int connections, long timeoutMs) {
+        return 0;
+    }
+
     /**
      * Shutdown builder
      */
@@ -0,0 +1,184 @@
+package io.github.devlibx.easy.http.helper;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.github.devlibx.easy.http.config.Server;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client side load balancer for a server with multiple hosts.
+ * <p>
+ * A host is selected with "power of two choices" - we pick two random hosts and use the one with less load. Load is
+ * the in-flight calls of the host ("LEAST_IN_FLIGHT") or EWMA latency * (in-flight calls + 1) ("EWMA").
+ * <p>
+ * A host which fails "server.ejectAfterConsecutiveFailures" times in a row (5xx or timeout) is ejected for
+ * "server.ejectionTimeMs" - it is not selected until ejection time is over (unless all hosts are ejected).
+ * <p>
+ * A call with a routing key uses consistent hashing with bounded load - key is mapped on a hash ring (with
+ * {@value #VIRTUAL_NODES} virtual nodes per host), and we use the first host after the key on the ring which is not
+ * ejected and does not have more than {@value #HASH_LOAD_FACTOR} times the average in-flight calls. Adding or
+ * removing a host only moves keys of that host.
+ */
+@Slf4j
+public class LoadBalancer {
+    private static final double EWMA_ALPHA = 0.3;
+    private static final int VIRTUAL_NODES = 100;
+    private static final double HASH_LOAD_FACTOR = 1.25;
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final String name;
+    private final List<String> urls;
+    private final Host[] hosts;
+    private final boolean useEwma;
+    private final int ejectAfterConsecutiveFailures;
+    private final long ejectionTimeNanos;
+
+    // Hash ring - sorted hashes of virtual nodes and host of each virtual node
+    private final long[] ringHashes;
+    private final int[] ringHosts;
+
+    public LoadBalancer(Server server) {
+        this.name = server.getName();
+        this.urls = server.getUrls();
+        this.hosts = new Host[urls.size()];
+        for (int i = 0; i < hosts.length; i++) {
+            hosts[i] = new Host();
+        }
+        this.useEwma = "EWMA".equalsIgnoreCase(server.getLoadBalancer());
+        this.ejectAfterConsecutiveFailures = server.getEjectAfterConsecutiveFailures();
+        this.ejectionTimeNanos = server.getEjectionTimeMs() * 1_000_000L;
+
+        // Build hash ring - virtual nodes are hashed from host url, so a host keeps its place if other hosts change
+        long[][] nodes = new long[hosts.length * VIRTUAL_NODES][];
+        for (int i = 0; i < hosts.length; i++) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                nodes[i * VIRTUAL_NODES + v] = new long[]{hash(urls.get(i) + "#" + v), i};
+            }
+        }
+        Arrays.sort(nodes, (a, b) -> Long.compare(a[0], b[0]));
+        this.ringHashes = new long[nodes.length];
+        this.ringHosts = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            ringHashes[i] = nodes[i][0];
+            ringHosts[i] = (int) nodes[i][1];
+        }
+    }
+
+    /**
+     * @return index of the host to use for a call (index in "server.getUrls()")
+     */
+    public int select() {
+        if (hosts.length == 1) return 0;
+        long now = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(hosts.length);
+        int second = random.nextInt(hosts.length - 1);
+        if (second >= first) second++;
+
+        boolean firstEjected = hosts[first].isEjected(now);
+        boolean secondEjected = hosts[second].isEjected(now);
+        if (firstEjected && secondEjected) {
+            // Both picks are ejected - use any host which is not ejected (or first pick if all hosts are ejected)
+            for (int i = 0; i < hosts.length; i++) {
+                if (!hosts[i].isEjected(now)) return i;
+            }
+            return first;
+        } else if (firstEjected) {
+            return second;
+        } else if (secondEjected) {
+            return first;
+        }
+        return load(first) <= load(second) ? first : second;
+    }
+
+    /**
+     * @return index of the host to use for a call with the given routing key (index in "server.getUrls()")
+     */
+    public int select(String routingKey) {
+        if (hosts.length == 1) return 0;
+        long now = System.nanoTime();
+
+        // Max in-flight calls a host can have to take this call
+        int totalInFlight = 0;
+        for (Host host : hosts) {
+            totalInFlight += host.inFlight.get();
+        }
+        double maxInFlight = Math.ceil(HASH_LOAD_FACTOR * (totalInFlight + 1) / hosts.length);
+
+        // Walk the ring from key position till we find a host which is not ejected and not overloaded
+        int position = Arrays.binarySearch(ringHashes, hash(routingKey));
+        if (position < 0) {
+            position = -position - 1;
+        }
+        int firstNotEjected = -1;
+        for (int i = 0; i < ringHosts.length; i++) {
+            int host = ringHosts[(position + i) % ringHosts.length];
+            if (hosts[host].isEjected(now)) continue;
+            if (hosts[host].inFlight.get() + 1 <= maxInFlight) return host;
+            if (firstNotEjected < 0) firstNotEjected = host;
+        }
+        return firstNotEjected >= 0 ? firstNotEjected : ringHosts[position % ringHosts.length];
+    }
+
+    /**
+     * Record start of a call to host
+     */
+    public void onStart(int host) {
+        hosts[host].inFlight.incrementAndGet();
+    }
+
+    /**
+     * Record a successful call to host
+     */
+    public void onSuccess(int host, long latencyNanos) {
+        Host h = hosts[host];
+        h.inFlight.decrementAndGet();
+        h.consecutiveFailures.set(0);
+        h.ewmaNanos = h.ewmaNanos == 0 ? latencyNanos : (EWMA_ALPHA * latencyNanos) + ((1 - EWMA_ALPHA) * h.ewmaNanos);
+    }
+
+    /**
+     * Record a failed call (5xx or timeout) to host - host is ejected if it failed too many times in a row
+     */
+    public void onFailure(int host) {
+        Host h = hosts[host];
+        h.inFlight.decrementAndGet();
+        if (ejectAfterConsecutiveFailures > 0 && h.consecutiveFailures.incrementAndGet() >= ejectAfterConsecutiveFailures) {
+            h.consecutiveFailures.set(0);
+            h.ejectedUntilNanos = System.nanoTime() + ejectionTimeNanos;
+            log.warn("host ejected: server={}, host={}, ejectionTimeMs={}", name, urls.get(host), ejectionTimeNanos / 1_000_000);
+        }
+    }
+
+    /**
+     * Record a call which was cancelled (or did not give a result which says anything about the host health)
+     */
+    public void onCancel(int host) {
+        hosts[host].inFlight.decrementAndGet();
+    }
+
+    private static long hash(String value) {
+        return HASH_FUNCTION.hashUnencodedChars(value).asLong();
+    }
+
+    private double load(int host) {
+        Host h = hosts[host];
+        return useEwma ? h.ewmaNanos * (h.inFlight.get() + 1) : h.inFlight.get();
+    }
+
+    private static class Host {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile double ewmaNanos;
+        private volatile long ejectedUntilNanos;
+
+        private boolean isEjected(long now) {
+            return ejectedUntilNanos != 0 && now - ejectedUntilNanos < 0;
+        }
+    }
+}
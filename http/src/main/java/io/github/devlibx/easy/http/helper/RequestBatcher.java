@@ -0,0 +1,223 @@
+package io.github.devlibx.easy.http.helper;
+
+import com.google.common.base.Strings;
+import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.github.devlibx.easy.http.IBatchKeyExtractor;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyNotFoundException;
+import io.reactivex.rxjava3.core.Observable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects single key calls of a api and sends them as one call to its bulk api (see "api.batchApi").
+ * <p>
+ * Keys are collected for "api.batchMaxDelayMs" or till we have "api.batchMaxKeys" keys - whichever is first. Same key
+ * is sent only once in a batch. Bulk response can be a list of items (key of a item is given by
+ * "api.batchKeyExtractor", or is the "api.batchResponseKeyField" field of the item) or a map of key to item. A call
+ * whose key is not in the bulk response gets a {@link EasyNotFoundException}, and if bulk call fails then all calls
+ * of the batch get its error.
+ * <p>
+ * Only a call which has nothing but the key (no other param, no header and no body) is batched.
+ */
+@Slf4j
+public class RequestBatcher {
+    private final String name;
+    private final String keyParam;
+    private final int maxKeys;
+    private final long maxDelayMs;
+    private final String keyField;
+    private final IBatchKeyExtractor keyExtractor;
+    private final Function<List<String>, Observable<Object>> bulkCall;
+
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<byte[]>> pending;
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * @param name     name of this batcher (used in logs)
+     * @param bulkCall makes a call to bulk api with given keys
+     */
+    public RequestBatcher(String name, Api api, Function<List<String>, Observable<Object>> bulkCall) {
+        this.name = name;
+        this.keyParam = api.getBatchKey();
+        this.maxKeys = Math.max(1, api.getBatchMaxKeys());
+        this.maxDelayMs = Math.max(0, api.getBatchMaxDelayMs());
+        this.keyField = api.getBatchResponseKeyField();
+        this.keyExtractor = buildKeyExtractor(api.getBatchKeyExtractor());
+        this.bulkCall = bulkCall;
+    }
+
+    private static IBatchKeyExtractor buildKeyExtractor(String className) {
+        if (Strings.isNullOrEmpty(className)) {
+            return null;
+        }
+        try {
+            return (IBatchKeyExtractor) Class.forName(className).newInstance();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Failed to create IBatchKeyExtractor from: " + className, e);
+        }
+    }
+
+    /**
+     * @return key of this request if it can be batched - null if request has anything other than the key (a
+     * "Content-Type" header is ignored, it is set on every request by default)
+     */
+    public String getKey(RequestObject requestObject) {
+        if (requestObject.getBody() != null || hasHeaders(requestObject.getHeaders())) {
+            return null;
+        }
+        Object key = null;
+        if (requestObject.getPathParam() != null && !requestObject.getPathParam().isEmpty()) {
+            if (requestObject.getPathParam().size() > 1) return null;
+            key = requestObject.getPathParam().get(keyParam);
+            if (key == null) return null;
+        }
+        if (requestObject.getQueryParam() != null && !requestObject.getQueryParam().isEmpty()) {
+            if (key != null || requestObject.getQueryParam().size() > 1) return null;
+            List<Object> values = requestObject.getQueryParam().get(keyParam);
+            if (values == null || values.size() != 1) return null;
+            key = values.get(0);
+        }
+        return key != null ? key.toString() : null;
+    }
+
+    private static boolean hasHeaders(Map<String, Object> headers) {
+        if (headers == null) {
+            return false;
+        }
+        for (String header : headers.keySet()) {
+            if (!"Content-Type".equalsIgnoreCase(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a key to the current batch
+     *
+     * @return future which gets the item of this key (as json bytes) from the bulk response
+     */
+    public CompletableFuture<byte[]> add(String key) {
+        CompletableFuture<byte[]> future;
+        Map<String, CompletableFuture<byte[]>> batch = null;
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new LinkedHashMap<>();
+                flushTask = SchedulerHolder.SCHEDULER.schedule(this::flushPending, maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+            future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.size() >= maxKeys) {
+                batch = pending;
+                pending = null;
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+        }
+        if (batch != null) {
+            flush(batch);
+        }
+        return future;
+    }
+
+    private void flushPending() {
+        Map<String, CompletableFuture<byte[]>> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = null;
+            flushTask = null;
+        }
+        if (batch != null) {
+            flush(batch);
+        }
+    }
+
+    private void flush(Map<String, CompletableFuture<byte[]>> batch) {
+        try {
+            bulkCall.apply(new ArrayList<>(batch.keySet())).subscribe(
+                    response -> complete(batch, response),
+                    throwable -> batch.values().forEach(future -> future.completeExceptionally(throwable)),
+                    () -> batch.forEach((key, future) -> {
+                        if (!future.isDone()) {
+                            future.completeExceptionally(notFound(key));
+                        }
+                    })
+            );
+        } catch (Exception e) {
+            log.error("failed to make bulk call: batcher={}, keys={}", name, batch.size(), e);
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Give each call its item from the bulk response
+     */
+    void complete(Map<String, CompletableFuture<byte[]>> batch, Object response) {
+        Map<String, Object> items = split(response);
+        batch.forEach((key, future) -> {
+            Object item = items.get(key);
+            if (item != null) {
+                future.complete(JsonUtils.asJson(item).getBytes(StandardCharsets.UTF_8));
+            } else {
+                future.completeExceptionally(notFound(key));
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> split(Object response) {
+        Map<String, Object> items = new HashMap<>();
+        if (response instanceof List) {
+            for (Object item : (List<Object>) response) {
+                if (!(item instanceof Map)) continue;
+                Map<String, Object> itemMap = (Map<String, Object>) item;
+                Object key = keyExtractor != null ? keyExtractor.extractKey(itemMap) : itemMap.get(keyField);
+                if (key != null) {
+                    items.put(key.toString(), item);
+                }
+            }
+        } else if (response instanceof Map) {
+            ((Map<Object, Object>) response).forEach((key, item) -> items.put(String.valueOf(key), item));
+        }
+        return items;
+    }
+
+    private EasyNotFoundException notFound(String key) {
+        ResponseObject responseObject = new ResponseObject();
+        responseObject.setStatusCode(404);
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "key not found in bulk response");
+        body.put("key", key);
+        responseObject.setBody(JsonUtils.asJson(body).getBytes(StandardCharsets.UTF_8));
+        return new EasyNotFoundException(responseObject);
+    }
+
+    private static class SchedulerHolder {
+        private static final ScheduledExecutorService SCHEDULER = buildScheduler();
+
+        private static ScheduledExecutorService buildScheduler() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "easy-http-request-batcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.ApplicationContext;
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of GET responses of a api (see "api.cache").
+ * <p>
+ * A response is fresh for "api.cacheTtlMs" if it is set - otherwise for the time given by "Cache-Control: max-age"
+ * (or "Expires") of the response. A response with "Cache-Control: no-store" (or "Vary: *") is not cached. After it is
+ * fresh, a response with a "ETag" is kept so that it can be revalidated with "If-None-Match" - a "304 Not Modified"
+ * makes it fresh again without downloading the body. For "Cache-Control: stale-while-revalidate" (or
+ * "api.cacheStaleWhileRevalidateMs") time after it is fresh, a stale response is given to the call and it is
+ * revalidated in background.
+ * <p>
+ * Size of the cache is capped to "api.cacheMaxBytes" bytes of response bodies - least recently used responses are
+ * removed first. Key of a response is the compiled path and query of the request, and values of
+ * "api.cacheKeyHeaders" headers.
+ */
+public class ResponseCache {
+    private final String name;
+    private final long ttlMs;
+    private final long maxBytes;
+    private final long staleWhileRevalidateMs;
+    private final List<String> keyHeaders;
+    private final StringHelper stringHelper;
+    private final LongSupplier clock;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public ResponseCache(String name, Api api) {
+        this(name, api, System::currentTimeMillis);
+    }
+
+    ResponseCache(String name, Api api, LongSupplier clock) {
+        this.name = name;
+        this.ttlMs = Math.max(0, api.getCacheTtlMs());
+        this.maxBytes = Math.max(0, api.getCacheMaxBytes());
+        this.staleWhileRevalidateMs = Math.max(0, api.getCacheStaleWhileRevalidateMs());
+        this.keyHeaders = api.getCacheKeyHeaders() != null ? new ArrayList<>(api.getCacheKeyHeaders()) : Collections.emptyList();
+        this.stringHelper = ApplicationContext.getOptionalInstance(StringHelper.class).orElse(new StringHelper());
+        this.clock = clock;
+    }
+
+    /**
+     * @return key of the response of this request - compiled path and query, and values of key headers
+     */
+    public String key(Api api, RequestObject requestObject) {
+        StringBuilder sb = new StringBuilder(name).append(':');
+        sb.append(api.getUriTemplate().expand(requestObject.getPathParam(), requestObject.getQueryParam(), stringHelper));
+        for (String header : keyHeaders) {
+            sb.append('\n').append(header).append('=').append(headerValue(requestObject.getHeaders(), header));
+        }
+        return sb.toString();
+    }
+
+    private String headerValue(Map<String, Object> headers, String name) {
+        if (headers == null) return "";
+        for (Map.Entry<String, Object> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return stringHelper.stringify(header.getValue());
+            }
+        }
+        return "";
+    }
+
+    /**
+     * @return cached response of this key (fresh or not) - null if we do not have it
+     */
+    public Entry get(String key) {
+        synchronized (lock) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Cache a success response (if it is cacheable - only a "200 OK" response is cached)
+     */
+    public void put(String key, ResponseObject responseObject) {
+        Entry entry = responseObject.getStatusCode() == 200
+                ? buildEntry(responseObject.getBody(), responseObject.getHeaders(), null)
+                : null;
+        if (entry != null) {
+            store(key, entry);
+        } else {
+            remove(key);
+        }
+    }
+
+    /**
+     * Server said cached response is not modified - make it fresh again with headers of "304 Not Modified" response
+     *
+     * @return revalidated entry
+     */
+    public Entry revalidated(String key, Entry entry, ResponseObject notModified) {
+        Entry revalidated = buildEntry(entry.body, notModified.getHeaders(), entry.etag);
+        if (revalidated != null) {
+            store(key, revalidated);
+            return revalidated;
+        }
+        remove(key);
+        return entry;
+    }
+
+    /**
+     * @return number of bytes of response bodies in cache
+     */
+    public long getBytes() {
+        synchronized (lock) {
+            return bytes;
+        }
+    }
+
+    private void store(String key, Entry entry) {
+        if (entry.size > maxBytes) {
+            remove(key);
+            return;
+        }
+        synchronized (lock) {
+            Entry old = entries.put(key, entry);
+            bytes += entry.size - (old != null ? old.size : 0);
+
+            // Remove least recently used responses till we are in size limit
+            Iterator<Entry> it = entries.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().size;
+                it.remove();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (lock) {
+            Entry old = entries.remove(key);
+            if (old != null) {
+                bytes -= old.size;
+            }
+        }
+    }
+
+    /**
+     * @return entry for this response - null if response is not cacheable
+     */
+    private Entry buildEntry(byte[] body, Map<String, String> headers, String defaultEtag) {
+        if (headers == null) {
+            headers = Collections.emptyMap();
+        }
+        String etag = headers.getOrDefault("etag", defaultEtag);
+        String vary = headers.get("vary");
+        if (vary != null && vary.trim().equals("*")) {
+            return null;
+        }
+
+        // Read Cache-Control directives
+        long maxAgeMs = -1;
+        long staleMs = staleWhileRevalidateMs;
+        boolean noCache = false;
+        String cacheControl = headers.get("cache-control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                String[] parts = directive.trim().toLowerCase().split("=", 2);
+                String value = parts.length > 1 ? parts[1].trim().replace("\"", "") : null;
+                switch (parts[0]) {
+                    case "no-store":
+                        return null;
+                    case "no-cache":
+                        noCache = true;
+                        break;
+                    case "max-age":
+                        maxAgeMs = seconds(value, maxAgeMs);
+                        break;
+                    case "stale-while-revalidate":
+                        staleMs = seconds(value, staleMs);
+                        break;
+                }
+            }
+        }
+
+        // Find how long response is fresh - ttl of api is used in place of cache headers if it is set
+        long freshMs;
+        if (ttlMs > 0) {
+            freshMs = ttlMs;
+        } else if (noCache) {
+            freshMs = 0;
+        } else if (maxAgeMs >= 0) {
+            freshMs = maxAgeMs;
+        } else {
+            freshMs = expiresMs(headers);
+        }
+
+        // A response which is never fresh is only useful if we can revalidate it
+        if (freshMs <= 0 && etag == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        long freshUntil = now + Math.max(0, freshMs);
+        return new Entry(body, etag, freshUntil, freshUntil + Math.max(0, staleMs));
+    }
+
+    private long seconds(String value, long defaultValue) {
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    private long expiresMs(Map<String, String> headers) {
+        String expires = headers.get("expires");
+        if (expires == null) {
+            return 0;
+        }
+        try {
+            long expiresAt = ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            String date = headers.get("date");
+            long responseAt = date != null
+                    ? ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                    : clock.getAsLong();
+            return expiresAt - responseAt;
+        } catch (Exception e) {
+            // A invalid "Expires" means response is already expired
+            return 0;
+        }
+    }
+
+    /**
+     * A cached response
+     */
+    public class Entry {
+        @Getter
+        private final byte[] body;
+        @Getter
+        private final String etag;
+        private final long freshUntil;
+        private final long staleUntil;
+        private final int size;
+        private final AtomicBoolean revalidating = new AtomicBoolean();
+
+        private Entry(byte[] body, String etag, long freshUntil, long staleUntil) {
+            this.body = body;
+            this.etag = etag;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+            this.size = body != null ? body.length : 0;
+        }
+
+        /**
+         * @return true if this response can be given without asking the server
+         */
+        public boolean isFresh() {
+            return clock.getAsLong() < freshUntil;
+        }
+
+        /**
+         * @return true if this response is not fresh but can be given while it is revalidated in background
+         */
+        public boolean isStaleWhileRevalidate() {
+            long now = clock.getAsLong();
+            return now >= freshUntil && now < staleUntil;
+        }
+
+        /**
+         * @return true if caller should revalidate this response in background - only one caller gets true
+         */
+        public boolean tryStartRevalidation() {
+            return revalidating.compareAndSet(false, true);
+        }
+
+        /**
+         * Background revalidation is done (a new revalidation can be started if this response is still in cache)
+         */
+        public void endRevalidation() {
+            revalidating.set(false);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
+import io.github.devlibx.easy.resilience.exception.CircuitOpenException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry state of a api - which errors are retried, backoff before a retry, and how many retries can be made.
+ * <p>
+ * A error is retried if it has a status code from "api.retryableStatusCodes", or if a exception in its cause chain
+ * matches "api.retryableExceptions". A call which failed because circuit is open is never retried.
+ * <p>
+ * Retries are at most "api.retryBudgetPercent" % of calls (see {@link CallBudget}).
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final Set<Integer> retryableStatusCodes;
+    private final Set<String> retryableExceptions;
+    private final CallBudget budget;
+
+    public RetryPolicy(Api api) {
+        this.maxAttempts = Math.max(1, api.getMaxAttempts());
+        this.backoffMs = Math.max(0, api.getRetryBackoffMs());
+        this.maxBackoffMs = Math.max(backoffMs, api.getRetryMaxBackoffMs());
+        this.retryableStatusCodes = api.getRetryableStatusCodes() != null ? new HashSet<>(api.getRetryableStatusCodes()) : new HashSet<>();
+        this.retryableExceptions = api.getRetryableExceptions() != null ? new HashSet<>(api.getRetryableExceptions()) : new HashSet<>();
+        this.budget = new CallBudget(api.getRetryBudgetPercent());
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Record a new call - adds credits for retries
+     */
+    public void onCall() {
+        budget.onCall();
+    }
+
+    /**
+     * @return true if we have budget to make a retry (budget is taken)
+     */
+    public boolean tryAcquireRetry() {
+        return budget.tryAcquire();
+    }
+
+    /**
+     * @param retry retry number (1 for the first retry)
+     * @return time (in ms) to wait before this retry - a random time between 0 and exponential backoff
+     */
+    public long getBackoffMs(int retry) {
+        long backoff = Math.min(maxBackoffMs, backoffMs << Math.min(30, retry - 1));
+        return backoff > 0 ? ThreadLocalRandom.current().nextLong(backoff + 1) : 0;
+    }
+
+    /**
+     * @return true if a call which failed with this error can be retried
+     */
+    public boolean isRetryable(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof CircuitOpenException) {
+                return false;
+            }
+        }
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof EasyHttpRequestException && retryableStatusCodes.contains(((EasyHttpRequestException) e).getStatusCode())) {
+                return true;
+            }
+            for (Class<?> cls = e.getClass(); cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+                if (retryableExceptions.contains(cls.getName()) || retryableExceptions.contains(cls.getSimpleName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
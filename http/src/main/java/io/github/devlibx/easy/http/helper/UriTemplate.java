@@ -0,0 +1,264 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+
+import javax.ws.rs.core.MultivaluedMap;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled api path. Path is parsed once into literal segments and parameter slots (e.g. "/users/${id}" has a
+ * literal "/users/" and a slot "id"), so building a url for a request does not need to parse the path again.
+ * <p>
+ * Url is built in a per-thread reusable buffer, and path params, query param keys and values are percent-encoded
+ * (UTF-8). Note - "/" is allowed in path param values to be compatible with the older behaviour.
+ * <p>
+ * Literal text of the path is used as it is given - an existing escape (e.g. "/a%20b") and a query in the path
+ * (e.g. "/users?active=true") are kept, and only chars which are not allowed in a url (e.g. a space) are encoded.
+ */
+public final class UriTemplate {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] PATH_CHARS = allowedChars("!$&'()*+,;=:@/");
+    private static final boolean[] QUERY_CHARS = allowedChars("!$'()*,;:@/?");
+    private static final boolean[] LITERAL_CHARS = allowedChars("!$&'()*+,;=:@/?");
+    private static final int MAX_RETAINED_BUFFER_SIZE = 8 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String path;
+
+    /**
+     * Literal segments (already encoded). There is always one more literal than params: literal[0] param[0]
+     * literal[1] param[1] ... literal[n]
+     */
+    private final String[] literals;
+    private final String[] params;
+
+    /**
+     * True for a param which is in the query of the path (e.g. "/users?name=${name}") - it is encoded as a query value
+     */
+    private final boolean[] queryParamSlots;
+
+    /**
+     * True if path has a query (query params of a request are added with "&" in this case)
+     */
+    private final boolean hasQuery;
+
+    /**
+     * Encoded "${name}" for each param - used if param value is not provided (same as StrSubstitutor behaviour)
+     */
+    private final String[] unresolvedParams;
+
+    private UriTemplate(String path, String[] literals, String[] params) {
+        this.path = path;
+        this.literals = literals;
+        this.params = params;
+        this.queryParamSlots = new boolean[params.length];
+        boolean query = literals[0].indexOf('?') >= 0;
+        for (int i = 0; i < params.length; i++) {
+            queryParamSlots[i] = query;
+            query = query || literals[i + 1].indexOf('?') >= 0;
+        }
+        this.hasQuery = query;
+        this.unresolvedParams = new String[params.length];
+        for (int i = 0; i < params.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            encode(sb, "${" + params[i] + "}", PATH_CHARS);
+            unresolvedParams[i] = sb.toString();
+        }
+    }
+
+    /**
+     * Compile a api path. Params are given as "${name}", and "$${name}" can be used to have a literal "${name}".
+     *
+     * @param path api path - a empty path is same as "/", and a path which does not start with "/" gets a "/" prefix
+     * @return compiled template
+     */
+    public static UriTemplate compile(String path) {
+        String normalized = path == null || path.isEmpty() ? "/" : path;
+        normalized = normalized.startsWith("/") ? normalized : "/" + normalized;
+
+        List<String> literals = new ArrayList<>();
+        List<String> params = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < normalized.length()) {
+            char c = normalized.charAt(i);
+            if (c == '$' && normalized.startsWith("$${", i)) {
+                // Escaped param - keep "${" as literal
+                literal.append("${");
+                i += 3;
+            } else if (c == '$' && normalized.startsWith("${", i) && normalized.indexOf('}', i + 2) > i + 2) {
+                int end = normalized.indexOf('}', i + 2);
+                literals.add(encodeLiteral(literal));
+                params.add(normalized.substring(i + 2, end));
+                literal.setLength(0);
+                i = end + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(encodeLiteral(literal));
+
+        return new UriTemplate(normalized, literals.toArray(new String[0]), params.toArray(new String[0]));
+    }
+
+    /**
+     * @return path used to build this template
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return names of the params in this template (in the order they appear in path)
+     */
+    public List<String> getParams() {
+        return Arrays.asList(params);
+    }
+
+    /**
+     * Build a absolute URI
+     *
+     * @param baseUrl     base url e.g. "http://localhost:80"
+     * @param pathParams  values for params in the path
+     * @param queryParams query params to add (may be null)
+     * @return URI to call
+     * @throws IllegalArgumentException if a valid URI could not be built
+     */
+    public URI toUri(String baseUrl, Map<String, Object> pathParams, MultivaluedMap<String, Object> queryParams, StringHelper stringHelper) {
+        return URI.create(expand(baseUrl, pathParams, queryParams, stringHelper));
+    }
+
+    /**
+     * Build path with query string e.g. "/users/1?a=b"
+     */
+    public String expand(Map<String, Object> pathParams, MultivaluedMap<String, Object> queryParams, StringHelper stringHelper) {
+        return expand(null, pathParams, queryParams, stringHelper);
+    }
+
+    private String expand(String baseUrl, Map<String, Object> pathParams, MultivaluedMap<String, Object> queryParams, StringHelper stringHelper) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        try {
+            if (baseUrl != null) {
+                sb.append(baseUrl);
+            }
+
+            // Path with params
+            sb.append(literals[0]);
+            for (int i = 0; i < params.length; i++) {
+                Object value = pathParams != null ? pathParams.get(params[i]) : null;
+                if (value == null) {
+                    sb.append(unresolvedParams[i]);
+                } else {
+                    encode(sb, value.toString(), queryParamSlots[i] ? QUERY_CHARS : PATH_CHARS);
+                }
+                sb.append(literals[i + 1]);
+            }
+
+            // Query params
+            if (queryParams != null && !queryParams.isEmpty()) {
+                boolean first = !hasQuery;
+                for (Map.Entry<String, List<Object>> entry : queryParams.entrySet()) {
+                    if (entry.getValue() == null) continue;
+                    for (Object value : entry.getValue()) {
+                        sb.append(first ? '?' : '&');
+                        first = false;
+                        encode(sb, entry.getKey(), QUERY_CHARS);
+                        String str = stringHelper.stringify(value);
+                        if (str != null) {
+                            sb.append('=');
+                            encode(sb, str, QUERY_CHARS);
+                        }
+                    }
+                }
+            }
+            return sb.toString();
+        } finally {
+            if (sb.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Encode literal text of the path - it is kept as it is, except chars which are not allowed in a url. A "%" which
+     * starts a escape (e.g. "%20") is kept, and any other "%" is encoded.
+     */
+    private static String encodeLiteral(CharSequence literal) {
+        StringBuilder sb = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < literal.length(); i++) {
+            if (literal.charAt(i) == '%' && i + 2 < literal.length() && isHex(literal.charAt(i + 1)) && isHex(literal.charAt(i + 2))) {
+                encode(sb, literal.subSequence(start, i), LITERAL_CHARS);
+                sb.append(literal, i, i + 3);
+                i += 2;
+                start = i + 1;
+            }
+        }
+        encode(sb, literal.subSequence(start, literal.length()), LITERAL_CHARS);
+        return sb.toString();
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /**
+     * Percent-encode (UTF-8) all chars which are not allowed
+     */
+    static void encode(StringBuilder sb, CharSequence str, boolean[] allowed) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < 128) {
+                if (allowed[c]) {
+                    sb.append(c);
+                } else {
+                    appendEncoded(sb, c);
+                }
+            } else if (c < 0x800) {
+                appendEncoded(sb, 0xC0 | (c >> 6));
+                appendEncoded(sb, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < str.length() && Character.isLowSurrogate(str.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, str.charAt(++i));
+                appendEncoded(sb, 0xF0 | (codePoint >> 18));
+                appendEncoded(sb, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendEncoded(sb, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendEncoded(sb, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate - same as what String.getBytes(UTF_8) does
+                appendEncoded(sb, '?');
+            } else {
+                appendEncoded(sb, 0xE0 | (c >> 12));
+                appendEncoded(sb, 0x80 | ((c >> 6) & 0x3F));
+                appendEncoded(sb, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendEncoded(StringBuilder sb, int b) {
+        sb.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+
+    private static boolean[] allowedChars(String extra) {
+        boolean[] allowed = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) allowed[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) allowed[c] = true;
+        for (char c = '0'; c <= '9'; c++) allowed[c] = true;
+        allowed['-'] = true;
+        allowed['.'] = true;
+        allowed['_'] = true;
+        allowed['~'] = true;
+        for (char c : extra.toCharArray()) allowed[c] = true;
+        return allowed;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.devlibx.easy.http.registry;
 
+import com.google.common.base.Strings;
 import com.google.inject.Inject;
 import io.gitbub.devlibx.easy.helper.Safe;
 import io.github.devlibx.easy.http.config.Api;
@@ -12,7 +13,10 @@ import lombok.Getter;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -37,16 +41,86 @@ public class ApiRegistry {
         return Optional.ofNullable(apiMap.get(api));
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T getClient(Server server, Api api, Class<T> cls) {
+        return getClient(server, api, server.getUrl(), cls);
+    }
+
+    /**
+     * @return client for one host (base url) of server and api
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getClient(Server server, Api api, String baseUrl, Class<T> cls) {
         if (httpClientBuilder.accept(server, api)) {
-            return (T) httpClientBuilder.buildClient(server, api, CloseableHttpClient.class);
+            return (T) httpClientBuilder.buildClient(server, api, baseUrl, CloseableHttpClient.class);
         } else if (asyncHttpClientBuilder.accept(server, api)) {
-            return (T) asyncHttpClientBuilder.buildClient(server, api, WebClient.class);
+            return (T) asyncHttpClientBuilder.buildClient(server, api, baseUrl, WebClient.class);
         }
         throw new RuntimeException("Request not supported");
     }
 
+    /**
+     * @return clients for all hosts of server (in same order as "server.getUrls()")
+     */
+    private List<Object> getClients(Server server, Api api) {
+        if (server == null) {
+            return Collections.emptyList();
+        }
+        List<Object> clients = new ArrayList<>();
+        server.getUrls().forEach(url -> clients.add(getClient(server, api, url, Object.class)));
+        return clients;
+    }
+
+    /**
+     * Open connections in the connection pool of a host of server and api
+     *
+     * @return no of connections opened
+     */
+    public int warmUp(Server server, Api api, String baseUrl, int connections, long timeoutMs) {
+        if (httpClientBuilder.accept(server, api)) {
+            return httpClientBuilder.warmUp(server, api, baseUrl, connections, timeoutMs);
+        } else if (asyncHttpClientBuilder.accept(server, api)) {
+            return asyncHttpClientBuilder.warmUp(server, api, baseUrl, connections, timeoutMs);
+        }
+        return 0;
+    }
+
+    /**
+     * Resolve a server/api pair to a endpoint. The returned endpoint has server, api, client and fallback set (request
+     * and resilience processors are not set).
+     * <p>
+     * Server (and client) will be null if api points to a server which is not registered, and fallback will be null if
+     * fallback api is not registered.
+     *
+     * @throws RuntimeException if api is not registered
+     */
+    public Endpoint resolveEndpoint(ServerRegistry serverRegistry, String serverName, String apiName) {
+        final Api api = getOptional(apiName).orElseThrow(() -> new RuntimeException("Could not find api=" + apiName));
+        final Server server = serverRegistry.get(api.getServer());
+
+        // Resolve fallback api (we only go one level deep for fallback)
+        Endpoint fallback = null;
+        if (!Strings.isNullOrEmpty(api.getFallbackApiName()) && apiMap.containsKey(api.getFallbackApiName())) {
+            final Api fallbackApi = apiMap.get(api.getFallbackApiName());
+            final Server fallbackServer = serverRegistry.get(fallbackApi.getServer());
+            fallback = Endpoint.builder()
+                    .serverName(serverName)
+                    .apiName(api.getFallbackApiName())
+                    .server(fallbackServer)
+                    .api(fallbackApi)
+                    .clients(getClients(fallbackServer, fallbackApi))
+                    .build();
+        }
+
+        return Endpoint.builder()
+                .serverName(serverName)
+                .apiName(apiName)
+                .server(server)
+                .api(api)
+                .clients(getClients(server, api))
+                .fallback(fallback)
+                .build();
+    }
+
     /**
      * Shutdown builder
      */
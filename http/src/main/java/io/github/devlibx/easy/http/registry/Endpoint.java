@@ -0,0 +1,220 @@
+package io.github.devlibx.easy.http.registry;
+
+import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.helper.ExchangeLogger;
+import io.github.devlibx.easy.http.helper.HedgePolicy;
+import io.github.devlibx.easy.http.helper.LoadBalancer;
+import io.github.devlibx.easy.http.helper.RequestBatcher;
+import io.github.devlibx.easy.http.helper.ResponseCache;
+import io.github.devlibx.easy.http.helper.RetryPolicy;
+import io.github.devlibx.easy.resilience.IResilienceProcessor;
+import io.github.devlibx.easy.resilience.TokenBucketRateLimiter;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A pre-resolved server/api pair. EasyHttp builds one endpoint for every server/api pair at setup time, so a call
+ * which holds an endpoint does not need any registry lookup, client lookup or string building to be executed.
+ * <p>
+ * An endpoint is immutable and is valid until EasyHttp is shutdown or setup again.
+ */
+@Getter
+public class Endpoint {
+
+    /**
+     * Name of the server used in the call
+     */
+    private final String serverName;
+
+    /**
+     * Name of the api used in the call
+     */
+    private final String apiName;
+
+    /**
+     * Key of this server/api pair (used as the resilience id)
+     */
+    private final String key;
+
+    /**
+     * Server which this api points to (null if api points to a server which is not registered)
+     */
+    private final Server server;
+
+    /**
+     * Api configuration
+     */
+    private final Api api;
+
+    /**
+     * Base url of server e.g. "http://localhost:80" (null if server is not registered). If server has multiple hosts
+     * then this is the url of the first host.
+     */
+    private final String baseUrl;
+
+    /**
+     * Base urls of all hosts of server (empty if server is not registered)
+     */
+    private final List<String> baseUrls;
+
+    /**
+     * Client to make http call - a CloseableHttpClient for sync and a WebClient for async api. If server has multiple
+     * hosts then this is the client of the first host.
+     */
+    private final Object client;
+
+    /**
+     * Clients of all hosts of server (in same order as base urls) - every host has its own connection pool
+     */
+    private final List<Object> clients;
+
+    private final IRequestProcessor requestProcessor;
+    private final IResilienceProcessor resilienceProcessor;
+
+    /**
+     * Endpoint to use if this endpoint fails (null if api does not have a fallback)
+     */
+    private final Endpoint fallback;
+
+    /**
+     * Rate limiter of the api and of the server (null if rate limit is not enabled) - server limiter is shared by
+     * all endpoints of the server
+     */
+    private final TokenBucketRateLimiter apiRateLimiter;
+    private final TokenBucketRateLimiter serverRateLimiter;
+
+    /**
+     * Hedging state of the api (null if hedging is not enabled)
+     */
+    private final HedgePolicy hedgePolicy;
+
+    /**
+     * Retry state of the api (null if api does not retry i.e. maxAttempts is 1)
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * Load balancer to pick a host (null if server has a single host) - shared by all endpoints of the server
+     */
+    private final LoadBalancer loadBalancer;
+
+    /**
+     * Logger for request/response of the api (null if api does not log exchanges)
+     */
+    private final ExchangeLogger exchangeLogger;
+
+    /**
+     * Collects single key calls of the api into bulk calls (null if api does not have a bulk api)
+     */
+    private final RequestBatcher requestBatcher;
+
+    /**
+     * Cache of responses of the api (null if api does not cache responses)
+     */
+    private final ResponseCache responseCache;
+
+    // Metric names - built once, so we do not concat strings on every call
+    private final String callTimeMetric;
+    private final String callErrorTimeMetric;
+    private final String httpClientTimeMetric;
+    private final String httpClientErrorTimeMetric;
+    private final String retryMetric;
+    private final String retrySuccessMetric;
+    private final String retryBudgetExhaustedMetric;
+    private final String cacheHitMetric;
+    private final String cacheStaleHitMetric;
+    private final String cacheMissMetric;
+    private final String cacheRevalidatedMetric;
+
+    @Builder(toBuilder = true)
+    private Endpoint(String serverName, String apiName, Server server, Api api, List<Object> clients,
+                     IRequestProcessor requestProcessor, IResilienceProcessor resilienceProcessor, Endpoint fallback,
+                     TokenBucketRateLimiter apiRateLimiter, TokenBucketRateLimiter serverRateLimiter, HedgePolicy hedgePolicy,
+                     RetryPolicy retryPolicy, LoadBalancer loadBalancer, ExchangeLogger exchangeLogger,
+                     RequestBatcher requestBatcher, ResponseCache responseCache) {
+        this.serverName = serverName;
+        this.apiName = apiName;
+        this.key = serverName + "-" + apiName;
+        this.server = server;
+        this.api = api;
+        this.baseUrls = server != null ? server.getUrls() : Collections.emptyList();
+        this.baseUrl = baseUrls.isEmpty() ? null : baseUrls.get(0);
+        this.clients = clients != null ? clients : Collections.emptyList();
+        this.client = this.clients.isEmpty() ? null : this.clients.get(0);
+        this.requestProcessor = requestProcessor;
+        this.resilienceProcessor = resilienceProcessor;
+        this.fallback = fallback;
+        this.apiRateLimiter = apiRateLimiter;
+        this.serverRateLimiter = serverRateLimiter;
+        this.hedgePolicy = hedgePolicy;
+        this.retryPolicy = retryPolicy;
+        this.loadBalancer = loadBalancer;
+        this.exchangeLogger = exchangeLogger;
+        this.requestBatcher = requestBatcher;
+        this.responseCache = responseCache;
+        this.callTimeMetric = serverName + "_" + apiName + "_call_time";
+        this.callErrorTimeMetric = serverName + "_" + apiName + "_call_error_time";
+        this.retryMetric = serverName + "_" + apiName + "_retry";
+        this.retrySuccessMetric = serverName + "_" + apiName + "_retry_success";
+        this.retryBudgetExhaustedMetric = serverName + "_" + apiName + "_retry_budget_exhausted";
+        this.cacheHitMetric = serverName + "_" + apiName + "_cache_hit";
+        this.cacheStaleHitMetric = serverName + "_" + apiName + "_cache_stale_hit";
+        this.cacheMissMetric = serverName + "_" + apiName + "_cache_miss";
+        this.cacheRevalidatedMetric = serverName + "_" + apiName + "_cache_revalidated";
+        String httpClientMetricPrefix = (server != null ? server.getName() : api.getServer()) + "_" + api.getName();
+        this.httpClientTimeMetric = httpClientMetricPrefix + "_http_client_time";
+        this.httpClientErrorTimeMetric = httpClientMetricPrefix + "_http_client_error_time";
+    }
+
+    /**
+     * @return client to be used for this endpoint
+     */
+    public <T> T getClient(Class<T> cls) {
+        return cls.cast(client);
+    }
+
+    /**
+     * @return index of the host to be used for a request (always 0 if server has a single host) - a request with a
+     * routing key always goes to the same host (unless host is ejected or overloaded)
+     */
+    public int selectHost(RequestObject requestObject) {
+        if (loadBalancer == null) {
+            return 0;
+        }
+        Object routingKey = getRoutingKey(requestObject);
+        return routingKey != null ? loadBalancer.select(routingKey.toString()) : loadBalancer.select();
+    }
+
+    private Object getRoutingKey(RequestObject requestObject) {
+        if (requestObject.getRoutingKey() != null) {
+            return requestObject.getRoutingKey();
+        } else if (api.getRoutingKey() == null) {
+            return null;
+        } else if (requestObject.getPathParam() != null && requestObject.getPathParam().containsKey(api.getRoutingKey())) {
+            return requestObject.getPathParam().get(api.getRoutingKey());
+        } else if (requestObject.getQueryParam() != null) {
+            return requestObject.getQueryParam().getFirst(api.getRoutingKey());
+        }
+        return null;
+    }
+
+    /**
+     * @return base url of the given host
+     */
+    public String getBaseUrl(int host) {
+        return baseUrls.get(host);
+    }
+
+    /**
+     * @return client to be used for the given host
+     */
+    public <T> T getClient(int host, Class<T> cls) {
+        return cls.cast(clients.get(host));
+    }
+}
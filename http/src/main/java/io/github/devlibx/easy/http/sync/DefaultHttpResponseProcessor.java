@@ -4,18 +4,31 @@ import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions;
+import io.github.devlibx.easy.http.util.Call.IResponseStreamBuilderFunc;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.util.EntityUtils;
 
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
 import static io.github.devlibx.easy.http.config.Api.DEFAULT_ACCEPTABLE_CODES;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
+import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 
 @Slf4j
 public class DefaultHttpResponseProcessor implements IHttpResponseProcessor {
 
     @Override
     public ResponseObject process(Server server, Api api, CloseableHttpResponse response) {
+        return process(server, api, response, null);
+    }
+
+    @Override
+    public ResponseObject process(Server server, Api api, CloseableHttpResponse response, IResponseStreamBuilderFunc<?> responseStreamBuilder) {
 
         int statusCode = INTERNAL_SERVER_ERROR.getStatusCode();
         if (response == null) {
@@ -29,14 +42,18 @@ public class DefaultHttpResponseProcessor implements IHttpResponseProcessor {
             api.setAcceptableCodes(DEFAULT_ACCEPTABLE_CODES);
         }
 
-        // See if we are ok with these http codes
+        // See if we are ok with these http codes - "304 Not Modified" is a success for a api which caches responses
+        // (it is a answer to a revalidation)
         byte[] body = null;
-        if (api.getAcceptableCodes().contains(statusCode)) {
+        if (api.getAcceptableCodes().contains(statusCode) || (api.isCache() && statusCode == NOT_MODIFIED.getStatusCode())) {
+            if (responseStreamBuilder != null) {
+                return ResponseObject.builder().success(true).decodedBody(decode(response.getEntity(), statusCode, responseStreamBuilder)).statusCode(statusCode).build();
+            }
             try {
                 body = response.getEntity() != null ? EntityUtils.toByteArray(response.getEntity()) : null;
             } catch (Exception ignored) {
             }
-            return ResponseObject.builder().success(true).body(body).statusCode(statusCode).build();
+            return ResponseObject.builder().success(true).body(body).statusCode(statusCode).headers(api.isCache() ? headers(response) : null).build();
         } else {
             try {
                 body = response.getEntity() != null ? EntityUtils.toByteArray(response.getEntity()) : null;
@@ -47,6 +64,26 @@ public class DefaultHttpResponseProcessor implements IHttpResponseProcessor {
         }
     }
 
+    private Map<String, String> headers(CloseableHttpResponse response) {
+        Map<String, String> headers = new HashMap<>();
+        for (Header header : response.getAllHeaders()) {
+            headers.putIfAbsent(header.getName().toLowerCase(), header.getValue());
+        }
+        return headers;
+    }
+
+    private Object decode(HttpEntity entity, int statusCode, IResponseStreamBuilderFunc<?> responseStreamBuilder) {
+        if (entity == null) return null;
+        try (InputStream inputStream = entity.getContent()) {
+            return responseStreamBuilder.apply(inputStream);
+        } catch (Exception e) {
+            throw new ResponseParseException("Failed to parse response from response stream", statusCode, e);
+        } finally {
+            // Make sure entity is fully consumed so that connection can be re-used
+            EntityUtils.consumeQuietly(entity);
+        }
+    }
+
     @Override
     public ResponseObject processException(Server server, Api api, Throwable e) {
         return ResponseObject.builder().exception(e).statusCode(INTERNAL_SERVER_ERROR.getStatusCode()).build();
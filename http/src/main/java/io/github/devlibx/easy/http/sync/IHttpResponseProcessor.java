@@ -3,12 +3,41 @@ package io.github.devlibx.easy.http.sync;
 import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.util.Call.IResponseStreamBuilderFunc;
 import org.apache.http.client.methods.CloseableHttpResponse;
 
 public interface IHttpResponseProcessor {
     ResponseObject process(Server server, Api api, CloseableHttpResponse response);
 
+    /**
+     * Process response - if responseStreamBuilder is given then a success response is parsed directly from the
+     * response stream and set as decoded body in the response object
+     */
+    default ResponseObject process(Server server, Api api, CloseableHttpResponse response, IResponseStreamBuilderFunc<?> responseStreamBuilder) {
+        return process(server, api, response);
+    }
+
     ResponseObject processException(Server server, Api api, Throwable e);
 
     void processResponseForException(ResponseObject response);
+
+    /**
+     * Error in parsing a response from the response stream. The http call itself was a success, so this error is not
+     * handled as a failure of the http call (it is thrown to the caller like a error of a response builder).
+     */
+    class ResponseParseException extends RuntimeException {
+        private final int statusCode;
+
+        public ResponseParseException(String message, int statusCode, Throwable cause) {
+            super(message, cause);
+            this.statusCode = statusCode;
+        }
+
+        /**
+         * @return status code of the response which could not be parsed
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
 }
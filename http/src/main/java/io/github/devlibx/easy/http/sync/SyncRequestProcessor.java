@@ -10,12 +10,15 @@ import io.github.devlibx.easy.http.RequestObject;
 import io.github.devlibx.easy.http.ResponseObject;
 import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.helper.ExchangeLogger;
+import io.github.devlibx.easy.http.helper.LoadBalancer;
 import io.github.devlibx.easy.http.registry.ApiRegistry;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.github.devlibx.easy.http.registry.ServerRegistry;
+import io.github.devlibx.easy.http.sync.IHttpResponseProcessor.ResponseParseException;
+import io.github.devlibx.easy.resilience.exception.RequestTimeoutException;
 import io.reactivex.rxjava3.core.Observable;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.text.StrSubstitutor;
-import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
@@ -23,16 +26,15 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.message.BasicNameValuePair;
 
 import javax.inject.Inject;
+import java.io.IOException;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Slf4j
@@ -61,74 +63,92 @@ public class SyncRequestProcessor implements IRequestProcessor {
 
     @Override
     public Observable<ResponseObject> process(RequestObject requestObject) {
-
-        // Get api and server from registry
-        final Api api = apiRegistry.getOptional(requestObject.getApi()).orElseThrow(() -> new RuntimeException("Could not find api=" + requestObject.getApi()));
-        final Server server = serverRegistry.getOptional(api.getServer()).orElseThrow(() -> new RuntimeException("Could not find server=" + api.getServer()));
-
-        // Set correct type of method in request from API
-        if (Strings.isNullOrEmpty(requestObject.getMethod())) {
-            requestObject.setMethod(api.getMethod());
-        }
+        final Endpoint endpoint = resolveEndpoint(requestObject);
 
         // Build a observer to handle this request
         return Observable.create(observableEmitter -> {
-
             try {
-
-                // Primary Path - request and give result
-                ResponseObject responseObject = internalProcess(server, api, requestObject);
+                ResponseObject responseObject = processWithFallback(endpoint, requestObject);
                 if (responseObject != null) {
                     observableEmitter.onNext(responseObject);
                 }
                 observableEmitter.onComplete();
-
             } catch (Exception e) {
+                observableEmitter.onError(e);
+            }
+        });
+    }
 
-                if (!Strings.isNullOrEmpty(api.getFallbackApiName())) {
-                    // Secondary flow to handle fallback API - If Primary path failed and we have a fallback configured
-                    // then use it
+    @Override
+    public ResponseObject processBlocking(RequestObject requestObject) {
+        ResponseObject responseObject = processWithFallback(resolveEndpoint(requestObject), requestObject);
+        if (responseObject == null) {
+            throw new NoSuchElementException();
+        }
+        return responseObject;
+    }
 
-                    // Get api and server from registry
-                    log.info("Going to fallback: server={}, api={}, fallbackApi={}", server.getName(), api.getName(), api.getFallbackApiName());
-                    final Api fallbackApi = apiRegistry.getOptional(api.getFallbackApiName()).orElseThrow(() -> new RuntimeException("Could not find fallback api=" + api.getFallbackApiName()));
-                    final Server fallbackServer = serverRegistry.getOptional(fallbackApi.getServer()).orElseThrow(() -> new RuntimeException("Could not find fallback server=" + fallbackApi.getServer()));
+    private Endpoint resolveEndpoint(RequestObject requestObject) {
 
-                    // Set correct type of method in request from API
-                    if (Strings.isNullOrEmpty(requestObject.getMethod())) {
-                        requestObject.setMethod(api.getMethod());
-                    }
+        // Get api and server from pre-resolved endpoint (or from registry if request does not have a endpoint)
+        final Endpoint endpoint = requestObject.getEndpoint() != null
+                ? requestObject.getEndpoint()
+                : apiRegistry.resolveEndpoint(serverRegistry, requestObject.getServer(), requestObject.getApi());
+        final Api api = endpoint.getApi();
+        if (endpoint.getServer() == null) {
+            throw new RuntimeException("Could not find server=" + api.getServer());
+        }
 
-                    // Try to process this request by fallback
-                    try {
-                        ResponseObject responseObject = internalProcess(fallbackServer, fallbackApi, requestObject);
-                        if (responseObject != null) {
-                            observableEmitter.onNext(responseObject);
-                        }
-                        observableEmitter.onComplete();
-                    } catch (Exception e1) {
-                        observableEmitter.onError(e1);
-                    }
+        // Set correct type of method in request from API
+        if (Strings.isNullOrEmpty(requestObject.getMethod())) {
+            requestObject.setMethod(api.getMethod());
+        }
+        return endpoint;
+    }
 
-                } else {
+    /**
+     * Make request with primary api - and with fallback api (if api has a fallback) if primary api failed
+     *
+     * @return response (null if api has a method which is not supported)
+     */
+    private ResponseObject processWithFallback(Endpoint endpoint, RequestObject requestObject) {
+        final Api api = endpoint.getApi();
+        final Server server = endpoint.getServer();
+        try {
 
-                    // No fallback is set - send back the error
-                    observableEmitter.onError(e);
-                }
+            // Primary Path - request and give result
+            return internalProcess(endpoint, requestObject);
+
+        } catch (RuntimeException e) {
+
+            if (Strings.isNullOrEmpty(api.getFallbackApiName()) || requestObject.getRemainingTimeMs() <= 0) {
+                // No fallback is set - send back the error
+                throw e;
             }
-        });
+
+            // Secondary flow to handle fallback API - If Primary path failed and we have a fallback configured
+            // then use it
+            log.info("Going to fallback: server={}, api={}, fallbackApi={}", server.getName(), api.getName(), api.getFallbackApiName());
+            final Endpoint fallbackEndpoint = Optional.ofNullable(endpoint.getFallback()).orElseThrow(() -> new RuntimeException("Could not find fallback api=" + api.getFallbackApiName()));
+            if (fallbackEndpoint.getServer() == null) {
+                throw new RuntimeException("Could not find fallback server=" + fallbackEndpoint.getApi().getServer());
+            }
+
+            // Try to process this request by fallback
+            return internalProcess(fallbackEndpoint, requestObject);
+        }
     }
 
     @SuppressWarnings({"Convert2MethodRef", "UnnecessaryLocalVariable"})
-    private ResponseObject internalProcess(Server server, Api api, RequestObject requestObject) {
+    private ResponseObject internalProcess(Endpoint endpoint, RequestObject requestObject) {
         switch (requestObject.getMethod()) {
             case "GET":
-                return internalProcess(server, api, requestObject, uri -> {
+                return internalProcess(endpoint, requestObject, uri -> {
                     HttpGet get = new HttpGet(uri);
                     return get;
                 }, HttpGet.class);
             case "POST":
-                return internalProcess(server, api, requestObject, uri -> {
+                return internalProcess(endpoint, requestObject, uri -> {
                     HttpPost post = new HttpPost(uri);
                     if (requestObject.getBody() != null) {
                         post.setEntity(new ByteArrayEntity(requestObject.getBody()));
@@ -136,7 +156,7 @@ public class SyncRequestProcessor implements IRequestProcessor {
                     return post;
                 }, HttpPost.class);
             case "PUT":
-                return internalProcess(server, api, requestObject, uri -> {
+                return internalProcess(endpoint, requestObject, uri -> {
                     HttpPut put = new HttpPut(uri);
                     if (requestObject.getBody() != null) {
                         put.setEntity(new ByteArrayEntity(requestObject.getBody()));
@@ -144,7 +164,7 @@ public class SyncRequestProcessor implements IRequestProcessor {
                     return put;
                 }, HttpPut.class);
             case "DELETE":
-                return internalProcess(server, api, requestObject, uri -> {
+                return internalProcess(endpoint, requestObject, uri -> {
                     HttpDelete delete = new HttpDelete(uri);
                     return delete;
                 }, HttpDelete.class);
@@ -153,17 +173,29 @@ public class SyncRequestProcessor implements IRequestProcessor {
     }
 
     @SuppressWarnings({"EmptyTryBlock", "TryWithIdenticalCatches"})
-    private <REQ_TYPE extends HttpRequestBase> ResponseObject internalProcess(Server server, Api api, RequestObject requestObject, Function<URI, REQ_TYPE> func, Class<REQ_TYPE> cls) {
+    private <REQ_TYPE extends HttpRequestBase> ResponseObject internalProcess(Endpoint endpoint, RequestObject requestObject, Function<URI, REQ_TYPE> func, Class<REQ_TYPE> cls) {
+        final Server server = endpoint.getServer();
+        final Api api = endpoint.getApi();
+
+        // Pick a host of the server (if server has multiple hosts)
+        final int host = endpoint.selectHost(requestObject);
+        final LoadBalancer loadBalancer = endpoint.getLoadBalancer();
 
         // Build a URL - replace path param and add query params
         URI uri;
         try {
-            uri = generateURI(server, api, requestObject);
+            uri = api.getUriTemplate().toUri(endpoint.getBaseUrl(host), requestObject.getPathParam(), requestObject.getQueryParam(), stringHelper);
             log.debug("URL to use = {}", uri);
-        } catch (URISyntaxException e) {
+        } catch (IllegalArgumentException e) {
             throw new RuntimeException("Failed to generate URI");
         }
 
+        // Fail fast if deadline of this call is already over (e.g. request waited in bulkhead queue)
+        final long remainingTimeMs = requestObject.getRemainingTimeMs();
+        if (remainingTimeMs == 0) {
+            throw new RequestTimeoutException("deadline of call is over", null);
+        }
+
         // Make a http request
         HttpRequestBase requestBase = func.apply(uri);
         requestBase.setConfig(buildRequestConfig(server, api, requestObject));
@@ -173,29 +205,66 @@ public class SyncRequestProcessor implements IRequestProcessor {
         requestObject.getHeaders().forEach((key, value) -> {
             requestBase.addHeader(key, stringHelper.stringify(value));
         });
+        if (requestObject.getDeadlineNanos() != 0) {
+            requestBase.setHeader(RequestObject.REMAINING_TIME_HEADER, Long.toString(remainingTimeMs));
+        }
 
         // Get a http client to make request
-        CloseableHttpClient client = apiRegistry.getClient(server, api, CloseableHttpClient.class);
+        CloseableHttpClient client = endpoint.getClient(host, CloseableHttpClient.class);
+
+        // Start exchange log (only if api logs exchanges and this call is sampled)
+        ExchangeLogger.Exchange exchange = endpoint.getExchangeLogger() != null
+                ? endpoint.getExchangeLogger().start(requestObject.getMethod(), uri, requestObject)
+                : null;
 
         // Request server
         ResponseObject responseObject;
+        Exception error = null;
+        if (loadBalancer != null) {
+            loadBalancer.onStart(host);
+        }
         long startTime = System.currentTimeMillis();
+        requestObject.setAbortAction(requestBase::abort);
         try (CloseableHttpResponse response = client.execute(requestBase)) {
-            responseObject = httpResponseProcessor.process(serverRegistry.get(api.getServer()), api, response);
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_time", System.currentTimeMillis() - startTime);
+            responseObject = httpResponseProcessor.process(server, api, response, requestObject.getResponseStreamBuilder());
+            metrics.observe(endpoint.getHttpClientTimeMetric(), System.currentTimeMillis() - startTime);
+        } catch (ResponseParseException e) {
+            // Http call was a success and only parsing of the response failed - this is not a error of the host, so
+            // throw it to the caller (same as a error of the response builder of a non-streaming call)
+            metrics.observe(endpoint.getHttpClientTimeMetric(), System.currentTimeMillis() - startTime);
+            if (exchange != null) {
+                exchange.complete(e.getStatusCode(), null, e);
+            }
+            if (loadBalancer != null) {
+                loadBalancer.onSuccess(host, (System.currentTimeMillis() - startTime) * 1_000_000L);
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
         } catch (Exception e) {
-            metrics.observe(server.getName() + "_" + api.getName() + "_http_client_error_time", System.currentTimeMillis() - startTime);
-            log.error("Unknown issue: request={}", requestObject, e);
+            metrics.observe(endpoint.getHttpClientErrorTimeMetric(), System.currentTimeMillis() - startTime);
+            if (requestObject.isAborted()) {
+                // Request was aborted by us (e.g. it lost to a hedge request) - nobody waits for its result
+                log.debug("Request aborted: server={}, api={}, method={}, uri={}", server.getName(), api.getName(), requestObject.getMethod(), uri);
+            } else {
+                log.error("Unknown issue: server={}, api={}, method={}, uri={}", server.getName(), api.getName(), requestObject.getMethod(), uri, e);
+            }
             responseObject = httpResponseProcessor.processException(server, api, e);
+            error = e;
+        } finally {
+            requestObject.setAbortAction(null);
+        }
+        if (exchange != null) {
+            exchange.complete(responseObject.getStatusCode(), responseObject.getBody(), responseObject.getException());
         }
 
-        if (requestObject.getResponseBuilder() == null) {
-            log.debug("Request={} Response={}", requestObject, responseObject.convertAsMap());
-        } else {
-            try {
-                log.debug("Request={} Response={}", requestObject, requestObject.getResponseBuilder().apply(responseObject.getBody()));
-            } catch (Exception e) {
-                log.debug("Request={} Response={}", requestObject, "Failed to build response from body using responseBuilder function", e);
+        // Record result of the host - a 5xx response (or a connect/read error) is a failure. A aborted request or a local
+        // error (e.g. no free connection in pool of this client) says nothing about the host, so it is not counted.
+        if (loadBalancer != null) {
+            if (requestObject.isAborted() || (error != null && !isHostFailure(error))) {
+                loadBalancer.onCancel(host);
+            } else if (responseObject.getStatusCode() >= 500) {
+                loadBalancer.onFailure(host);
+            } else {
+                loadBalancer.onSuccess(host, (System.currentTimeMillis() - startTime) * 1_000_000L);
             }
         }
 
@@ -205,47 +274,26 @@ public class SyncRequestProcessor implements IRequestProcessor {
         return responseObject;
     }
 
+    /**
+     * @return true if this error of a http request is a failure of the host - a I/O error to connect, send or read
+     * (timeout to get a connection from the pool of this client is not a failure of the host)
+     */
+    static boolean isHostFailure(Exception e) {
+        return e instanceof IOException && !(e instanceof ConnectionPoolTimeoutException);
+    }
+
     private RequestConfig buildRequestConfig(Server server, Api api, RequestObject request) {
         int socketTimeoutToBeUsed = api.getTimeout();
         if (api.getTimeoutDeltaFactor() > 0) {
             socketTimeoutToBeUsed = (int) (socketTimeoutToBeUsed + (api.getTimeoutDeltaFactor() * socketTimeoutToBeUsed));
         }
-        return RequestConfig.custom()
-                .setConnectTimeout(server.getConnectTimeout())
-                .setConnectionRequestTimeout(server.getConnectionRequestTimeout())
-                .setSocketTimeout(socketTimeoutToBeUsed)
-                .build();
-    }
 
-    private URI generateURI(Server server, Api api, RequestObject request) throws URISyntaxException {
-        return new URIBuilder()
-                .setScheme(server.isHttps() ? "https" : "http")
-                .setHost(server.getHost())
-                .setPort(server.getPort())
-                .setPath(resolvePath(server, api, request))
-                .setParameters(getQueryParams(server, api, request))
+        // No step can take more than time left in the deadline of this call (0 is "no timeout" for http client)
+        long remainingTimeMs = Math.max(1, request.getRemainingTimeMs());
+        return RequestConfig.custom()
+                .setConnectTimeout((int) Math.min(server.getConnectTimeout(), remainingTimeMs))
+                .setConnectionRequestTimeout((int) Math.min(server.getConnectionRequestTimeout(), remainingTimeMs))
+                .setSocketTimeout((int) Math.min(socketTimeoutToBeUsed, remainingTimeMs))
                 .build();
     }
-
-    @SuppressWarnings("deprecation")
-    private String resolvePath(Server server, Api api, RequestObject request) {
-        String uri = api.getPath();
-        if (!Strings.isNullOrEmpty(uri) && request.getPathParam() != null) {
-            uri = StrSubstitutor.replace(api.getPath(), request.getPathParam());
-        }
-        if (Strings.isNullOrEmpty(uri)) {
-            uri = "/";
-        }
-        return uri.startsWith("/") ? uri : "/" + uri;
-    }
-
-    private List<NameValuePair> getQueryParams(Server server, Api api, RequestObject request) {
-        final List<NameValuePair> queryParams = new ArrayList<>();
-        if (null != request.getQueryParam()) {
-            request.getQueryParam()
-                    .forEach((key, values) -> values
-                            .forEach(value -> queryParams.add(new BasicNameValuePair(key, stringHelper.stringify(value)))));
-        }
-        return queryParams;
-    }
 }
@@ -1,13 +1,20 @@
 package io.github.devlibx.easy.http.util;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
 import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.vavr.Function0;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,7 +29,18 @@ public class Call<R> {
     private Object body;
     private Class<R> responseClass;
     private IResponseBuilderFunc<R> responseBuilder;
+    private IResponseStreamBuilderFunc<R> responseStreamBuilder;
     private Function0<byte[]> requestBodyFunc;
+    private Object routingKey;
+    private long deadline;
+
+    /**
+     * Endpoint given with "withEndpoint" (null if call has only server and api) - not part of equality of a call
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Endpoint endpoint;
 
     private Call() {
     }
@@ -31,6 +49,28 @@ public class Call<R> {
         return requestBodyFunc.apply();
     }
 
+    /**
+     * @param deadline total time (in ms) the call can take (see {@link Builder#withDeadline(long)})
+     * @return a copy of this call with given deadline - this call is not changed
+     */
+    public Call<R> withDeadline(long deadline) {
+        Call<R> call = new Call<>();
+        call.server = server;
+        call.api = api;
+        call.headers = headers;
+        call.pathParams = pathParams;
+        call.queryParam = queryParam;
+        call.body = body;
+        call.responseClass = responseClass;
+        call.responseBuilder = responseBuilder;
+        call.responseStreamBuilder = responseStreamBuilder;
+        call.requestBodyFunc = requestBodyFunc;
+        call.routingKey = routingKey;
+        call.deadline = deadline;
+        call.endpoint = endpoint;
+        return call;
+    }
+
     /**
      * A call object builder
      */
@@ -50,7 +90,11 @@ public class Call<R> {
         private Object body;
         private final Class<R> responseClass;
         private IResponseBuilderFunc<R> responseBuilder;
+        private IResponseStreamBuilderFunc<R> responseStreamBuilder;
         private Function0<byte[]> requestBodyFunc;
+        private Object routingKey;
+        private long deadline;
+        private Endpoint endpoint;
 
         public Builder(Class<R> responseClass) {
             this.responseClass = responseClass;
@@ -88,6 +132,32 @@ public class Call<R> {
             return this;
         }
 
+        /**
+         * Parse the response directly from the response stream (without reading full response into a byte array
+         * or string). Response class is parsed using a cached json object reader.
+         *
+         * @return builder object
+         */
+        public Builder<R> withStreamingResponse() {
+            this.responseStreamBuilder = inputStream -> {
+                if (responseClass.isAssignableFrom(String.class)) {
+                    return responseClass.cast(new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8));
+                }
+                return JsonUtils.readObject(inputStream, responseClass);
+            };
+            return this;
+        }
+
+        /**
+         * @param responseStreamBuilder a builder from response stream to desired type - response is parsed directly
+         *                              from the response stream
+         * @return builder object
+         */
+        public Builder<R> withStreamingResponse(IResponseStreamBuilderFunc<R> responseStreamBuilder) {
+            this.responseStreamBuilder = responseStreamBuilder;
+            return this;
+        }
+
         /**
          * Ensure that all the required params are provided.
          */
@@ -114,7 +184,11 @@ public class Call<R> {
             call.body = body;
             call.responseClass = responseClass;
             call.responseBuilder = responseBuilder;
+            call.responseStreamBuilder = responseStreamBuilder;
             call.requestBodyFunc = requestBodyFunc;
+            call.routingKey = routingKey;
+            call.deadline = deadline;
+            call.endpoint = endpoint;
             return call;
         }
 
@@ -128,6 +202,38 @@ public class Call<R> {
             return this;
         }
 
+        /**
+         * @param endpoint pre-resolved endpoint (from {@link EasyHttp#getEndpoint(String, String)}) - server and api
+         *                 are taken from this endpoint
+         * @return builder object
+         */
+        public Builder<R> withEndpoint(Endpoint endpoint) {
+            this.server = endpoint.getServerName();
+            this.api = endpoint.getApiName();
+            this.endpoint = endpoint;
+            return this;
+        }
+
+        /**
+         * @param routingKey key used to pick a host if server has multiple hosts - calls with same key go to the same
+         *                   host. If not set then value of "routingKey" param of api is used.
+         * @return builder object
+         */
+        public Builder<R> withRoutingKey(Object routingKey) {
+            this.routingKey = routingKey;
+            return this;
+        }
+
+        /**
+         * @param deadline total time (in ms) this call can take - including wait in bulkhead, connection lease,
+         *                 socket read and fallback call. If not set then "deadline" of api is used.
+         * @return builder object
+         */
+        public Builder<R> withDeadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
         /**
          * @param requestBodyFunc a function to return byte array - used when user wants to write custom object to
          *                        byte array implementation
@@ -322,4 +428,8 @@ public class Call<R> {
     public interface IResponseBuilderFunc<R> {
         R apply(byte[] bytes) throws Exception;
     }
+
+    public interface IResponseStreamBuilderFunc<R> {
+        R apply(InputStream inputStream) throws Exception;
+    }
 }
@@ -0,0 +1,99 @@
+package io.github.devlibx.easy.http.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of calls made by {@link EasyHttp#callAll(List, long)} - result (or error) of a call is at the same index as
+ * the call. Results are kept in two arrays, so no object is created per call.
+ *
+ * @param <K> type of key if calls were given with keys (see {@link EasyHttp#callAll(Map, long)}) - if calls were given
+ *            as a list then key is the index of the call
+ */
+@SuppressWarnings("unchecked")
+public class CallResults<K> {
+    private final Object[] results;
+    private final Throwable[] errors;
+    private final Map<K, Integer> keys;
+
+    CallResults(int size, Map<K, Integer> keys) {
+        this.results = new Object[size];
+        this.errors = new Throwable[size];
+        this.keys = keys;
+    }
+
+    /**
+     * @return no of calls
+     */
+    public int size() {
+        return results.length;
+    }
+
+    /**
+     * @return true if call at this index was successful
+     */
+    public boolean isSuccess(int index) {
+        return errors[index] == null;
+    }
+
+    /**
+     * @return result of the call at this index (null if call failed)
+     */
+    public <T> T get(int index) {
+        return (T) results[index];
+    }
+
+    /**
+     * @return error of the call at this index (null if call was successful). A call which did not finish before the
+     * deadline has a {@link io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException}
+     */
+    public Throwable getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * @return true if call with this key was successful
+     */
+    public boolean isSuccess(K key) {
+        return isSuccess(indexOf(key));
+    }
+
+    /**
+     * @return result of the call with this key (null if call failed)
+     */
+    public <T> T get(K key) {
+        return get(indexOf(key));
+    }
+
+    /**
+     * @return error of the call with this key (null if call was successful)
+     */
+    public Throwable getError(K key) {
+        return getError(indexOf(key));
+    }
+
+    void setResult(int index, Object result) {
+        results[index] = result;
+    }
+
+    void setError(int index, Throwable error) {
+        errors[index] = error;
+    }
+
+    private int indexOf(K key) {
+        Integer index = keys != null ? keys.get(key) : (Integer) key;
+        if (index == null) {
+            throw new IllegalArgumentException("no call with key=" + key);
+        }
+        return index;
+    }
+
+    static <K> Map<K, Integer> indexKeys(List<K> keys) {
+        Map<K, Integer> index = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            index.put(keys.get(i), i);
+        }
+        return index;
+    }
+}
@@ -7,8 +7,14 @@ import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyInternalServ
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyRequestTimeOutException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.reactivex.rxjava3.core.Observable;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public class EasyHttp {
     private static IEasyHttpImplementation defaultEasyHttpImplementation = new EasyHttpObject();
 
@@ -33,6 +39,18 @@ public class EasyHttp {
         defaultEasyHttpImplementation.shutdown();
     }
 
+    /**
+     * Get a pre-resolved endpoint for a server and api. A endpoint can be passed to {@link Call.Builder#withEndpoint}
+     * to make a call without any lookup of server, api, client and resilience processor.
+     * <p>
+     * Note - endpoint is valid until {@link EasyHttp#shutdown()} or next {@link EasyHttp#setup(Config)} is called.
+     *
+     * @return endpoint for server and api (null if server and api is not registered)
+     */
+    public static Endpoint getEndpoint(String server, String api) {
+        return defaultEasyHttpImplementation.getEndpoint(server, api);
+    }
+
     /**
      * Make a HTTP call which returns a response.
      * </br>
@@ -74,8 +92,65 @@ public class EasyHttp {
      *                                  {@link EasyHttpRequestException}. These resilience exception are thrown when
      *                                  circuit is open, too many calls are made, or request timed out.
      *                                  <p>
+     *                                  For async apis the call does not block - result is given later in the I/O
+     *                                  thread, so keep the subscription till the result is received. Disposing the
+     *                                  subscription cancels the http call.
      */
     public static <T> Observable<T> callAsync(Call<T> call) {
         return defaultEasyHttpImplementation.callAsync(call);
     }
+
+    /**
+     * Make a HTTP call which returns a future. The future is completed in the thread which completes the call (the
+     * I/O thread for async apis) - so do not block in the callbacks of this future, or use
+     * {@link #callFuture(Call, Executor)}. Cancelling the future cancels the call.
+     * <p>
+     * Future is completed with the same errors which {@link #callSync(Call)} throws (e.g.
+     * {@link EasyHttpRequestException} or {@link EasyResilienceException}).
+     *
+     * @param call request object
+     * @param <T>  type of response
+     * @return future for response of http call
+     */
+    public static <T> CompletableFuture<T> callFuture(Call<T> call) {
+        return defaultEasyHttpImplementation.callFuture(call);
+    }
+
+    /**
+     * Same as {@link #callFuture(Call)} - future is completed in the given executor
+     *
+     * @param call     request object
+     * @param executor executor to complete the future
+     * @param <T>      type of response
+     * @return future for response of http call
+     */
+    public static <T> CompletableFuture<T> callFuture(Call<T> call, Executor executor) {
+        return defaultEasyHttpImplementation.callFuture(call, executor);
+    }
+
+    /**
+     * Make all calls in parallel (each call uses the bulkhead of its own api), and wait till all calls are complete or
+     * timeout is over - whichever is first. Calls which are not complete by the timeout are cancelled, and they get a
+     * {@link EasyResilienceRequestTimeoutException} as error.
+     * <p>
+     * A failed call does not fail other calls - check {@link CallResults#isSuccess(int)} for every call.
+     *
+     * @param calls     calls to make
+     * @param timeoutMs max time to wait for all calls
+     * @return result (or error) of every call at the index of the call
+     */
+    public static CallResults<Integer> callAll(List<Call<?>> calls, long timeoutMs) {
+        return defaultEasyHttpImplementation.callAll(calls, timeoutMs);
+    }
+
+    /**
+     * Same as {@link #callAll(List, long)} - calls are given with a key, and result of a call is read with its key.
+     *
+     * @param calls     calls to make (key -> call)
+     * @param timeoutMs max time to wait for all calls
+     * @return result (or error) of every call with the key of the call
+     */
+    public static <K> CallResults<K> callAll(Map<K, Call<?>> calls, long timeoutMs) {
+        return defaultEasyHttpImplementation.callAll(calls, timeoutMs);
+    }
 }
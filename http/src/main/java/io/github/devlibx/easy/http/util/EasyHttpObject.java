@@ -1,57 +1,112 @@
 package io.github.devlibx.easy.http.util;
 
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Key;
 import io.gitbub.devlibx.easy.helper.ApplicationContext;
 import io.gitbub.devlibx.easy.helper.Safe;
 import io.gitbub.devlibx.easy.helper.metrics.IMetrics;
 import io.github.devlibx.easy.http.IRequestProcessor;
 import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
 import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.config.Server;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyBadRequestException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyInternalServerErrorException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyRequestTimeOutException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.github.devlibx.easy.http.helper.ExchangeLogger;
+import io.github.devlibx.easy.http.helper.HedgePolicy;
+import io.github.devlibx.easy.http.helper.LoadBalancer;
+import io.github.devlibx.easy.http.helper.RequestBatcher;
+import io.github.devlibx.easy.http.helper.ResponseCache;
+import io.github.devlibx.easy.http.helper.RetryPolicy;
 import io.github.devlibx.easy.http.module.Async;
 import io.github.devlibx.easy.http.module.Sync;
 import io.github.devlibx.easy.http.registry.ApiRegistry;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.github.devlibx.easy.http.registry.ServerRegistry;
 import io.github.devlibx.easy.resilience.IResilienceManager;
 import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig;
 import io.github.devlibx.easy.resilience.IResilienceProcessor;
 import io.github.devlibx.easy.resilience.ResilienceManager;
+import io.github.devlibx.easy.resilience.TokenBucketRateLimiter;
+import io.github.devlibx.easy.resilience.exception.RateLimitedException;
+import io.github.devlibx.easy.resilience.exception.RequestTimeoutException;
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.exceptions.Exceptions;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 import static io.github.devlibx.easy.http.exception.EasyHttpExceptions.easyEasyResilienceException;
 
-@SuppressWarnings({"EmptyTryBlock", "CatchMayIgnoreException", "ConstantConditions"})
+@SuppressWarnings({"EmptyTryBlock", "CatchMayIgnoreException", "ConstantConditions", "unchecked"})
 @Slf4j
 class EasyHttpObject implements IEasyHttpImplementation {
+    private static final long DEFAULT_WARM_UP_TIMEOUT_MS = 2000;
+    private static final int MAX_WARM_UP_THREADS = 16;
+    private static final String CALL_ALL_WIDTH_METRIC = "easy_http_call_all_width";
+    private static final String CALL_ALL_TIME_METRIC = "easy_http_call_all_time";
+    private static final String CALL_ALL_SLOWEST_WAIT_METRIC = "easy_http_call_all_slowest_call_wait_time";
+
     /**
-     * Map of all processor
+     * Map of all endpoints (server -> api -> endpoint)
      */
-    private final Map<String, IRequestProcessor> requestProcessors = new HashMap<>();
-    private final Map<String, IResilienceProcessor> resilienceProcessors = new HashMap<>();
+    private final Map<String, Map<String, Endpoint>> endpoints = new HashMap<>();
     private IResilienceManager resilienceManager;
     private final Lock resilienceManagerLock = new ReentrantLock();
     private IMetrics metrics;
 
+    /**
+     * In-flight requests of apis which coalesce calls (call key -> shared response)
+     */
+    private final Map<List<Object>, Observable<ResponseObject>> inFlightCalls = new ConcurrentHashMap<>();
+
+    /**
+     * Apis which got a streaming call to coalesce (streaming is not used for these calls - it is logged once per api)
+     */
+    private final Set<String> coalescedStreamingApis = ConcurrentHashMap.newKeySet();
+
     /**
      * Free all resources
      */
     @Override
     public void shutdown() {
-        requestProcessors.forEach((key, requestProcessor) -> Safe.safe(requestProcessor::shutdown));
-        requestProcessors.clear();
-        resilienceProcessors.clear();
+        endpoints.values().stream()
+                .flatMap(apiEndpoints -> apiEndpoints.values().stream())
+                .map(Endpoint::getRequestProcessor)
+                .distinct()
+                .forEach(requestProcessor -> Safe.safe(requestProcessor::shutdown));
+        endpoints.clear();
         resilienceManager = null;
     }
 
@@ -80,20 +135,79 @@ class EasyHttpObject implements IEasyHttpImplementation {
         // Make sure we have resilienceManager object created
         ensureResilienceManager();
 
-        // Setup all request processors
+        // Set names, pre-process configs and compile api paths
+        serverRegistry.getServerMap().forEach((serverName, server) -> server.setName(serverName));
+        apiRegistry.getApiMap().forEach((apiName, api) -> {
+            api.setName(apiName);
+            api.getConfigPreProcessorList().forEach(processor -> {
+                processor.process(apiName, api);
+            });
+            api.getUriTemplate();
+        });
+
+        // Build rate limiters - one per api and one per server (shared by all apis of the server)
+        Map<String, TokenBucketRateLimiter> serverRateLimiters = new HashMap<>();
+        serverRegistry.getServerMap().forEach((serverName, server) -> {
+            if (server.getRps() > 0) {
+                serverRateLimiters.put(serverName, new TokenBucketRateLimiter(serverName, server.getRps(), server.getRateLimitBurst(), server.getRateLimitMaxWaitMs()));
+            }
+        });
+        Map<String, TokenBucketRateLimiter> apiRateLimiters = new HashMap<>();
+        apiRegistry.getApiMap().forEach((apiName, api) -> {
+            if (api.isRateLimit() && api.getRps() > 0) {
+                apiRateLimiters.put(apiName, new TokenBucketRateLimiter(apiName, api.getRps(), api.getRateLimitBurst(), api.getRateLimitMaxWaitMs()));
+            }
+        });
+
+        // Build load balancers for servers which have multiple hosts (shared by all apis of the server)
+        Map<String, LoadBalancer> loadBalancers = new HashMap<>();
+        serverRegistry.getServerMap().forEach((serverName, server) -> {
+            if (server.getUrls().size() > 1) {
+                loadBalancers.put(serverName, new LoadBalancer(server));
+            }
+        });
+
+        // Build hedging state of apis which use hedging
+        Map<String, HedgePolicy> hedgePolicies = new HashMap<>();
+        apiRegistry.getApiMap().forEach((apiName, api) -> {
+            if (api.isHedge()) {
+                hedgePolicies.put(apiName, new HedgePolicy(api));
+            }
+        });
+
+        // Build retry state of apis which retry failed calls
+        Map<String, RetryPolicy> retryPolicies = new HashMap<>();
+        apiRegistry.getApiMap().forEach((apiName, api) -> {
+            if (api.getMaxAttempts() > 1) {
+                retryPolicies.put(apiName, new RetryPolicy(api));
+            }
+        });
+
+        // Build batchers of apis which have a bulk api - one for each api (on its own server), so that calls to a api
+        // are batched together under all server names
+        Map<String, RequestBatcher> requestBatchers = new HashMap<>();
+        apiRegistry.getApiMap().forEach((apiName, api) -> {
+            if (!Strings.isNullOrEmpty(api.getBatchApi())) {
+                requestBatchers.put(apiName, new RequestBatcher(api.getServer() + "-" + apiName, api, keys -> bulkCall(api.getServer(), api, keys)));
+            }
+        });
+
+        // Build response caches of apis which cache GET responses - one for each api (on its own server)
+        Map<String, ResponseCache> responseCaches = new HashMap<>();
+        apiRegistry.getApiMap().forEach((apiName, api) -> {
+            if (api.isCache() && "GET".equals(api.getMethod())) {
+                responseCaches.put(apiName, new ResponseCache(api.getServer() + "-" + apiName, api));
+            }
+        });
+
+        // Setup all endpoints - we resolve server, api, client and processors once so that a call does not have to
+        // do it again
         serverRegistry.getServerMap().forEach((serverName, server) -> {
-            server.setName(serverName);
             apiRegistry.getApiMap().forEach((apiName, api) -> {
-                api.setName(apiName);
 
                 // Key to be used for this API
                 String key = serverName + "-" + apiName;
 
-                // Pre-Process configs
-                api.getConfigPreProcessorList().forEach(processor -> {
-                    processor.process(apiName, api);
-                });
-
                 // Build a request processor
                 IRequestProcessor requestProcessor = null;
                 if (api.isAsync()) {
@@ -102,7 +216,6 @@ class EasyHttpObject implements IEasyHttpImplementation {
                     requestProcessor = ApplicationContext.getInstance(Key.get(IRequestProcessor.class, Sync.class));
 
                 }
-                requestProcessors.put(key, requestProcessor);
 
                 // Setup resilience processor
                 ResilienceCallConfig callConfig = ResilienceCallConfig.withDefaults()
@@ -111,30 +224,189 @@ class EasyHttpObject implements IEasyHttpImplementation {
                         .timeout(api.getTimeout())
                         .queueSize(api.getQueueSize())
                         .useSemaphore(api.isAsync())
+                        .useSharedExecutor(api.isSharedExecutor())
+                        .useVirtualThreads(api.isVirtualThreads())
+                        .adaptiveConcurrency(api.isAdaptiveConcurrency())
+                        .maxConcurrency(api.getMaxConcurrency())
+                        .circuitBreakerWindowType(api.getCircuitBreakerWindowType())
+                        .circuitBreakerWindowSize(api.getCircuitBreakerWindowSize())
+                        .circuitBreakerMinimumCalls(api.getCircuitBreakerMinimumCalls())
+                        .circuitBreakerFailureRateThreshold(api.getCircuitBreakerFailureRateThreshold())
+                        .circuitBreakerSlowCallRateThreshold(api.getCircuitBreakerSlowCallRateThreshold())
+                        .circuitBreakerSlowCallDurationMs(api.getCircuitBreakerSlowCallDurationMs())
+                        .circuitBreakerHalfOpenCalls(api.getCircuitBreakerHalfOpenCalls())
+                        .circuitBreakerOpenStateWaitMs(api.getCircuitBreakerOpenStateWaitMs())
                         .build();
                 IResilienceProcessor resilienceProcessor = resilienceManager.getOrCreate(callConfig);
-                resilienceProcessors.put(key, resilienceProcessor);
 
+                // Fallback api may be on a other server - it uses load balancer of its own server
+                Endpoint resolvedEndpoint = apiRegistry.resolveEndpoint(serverRegistry, serverName, apiName);
+                Endpoint fallback = resolvedEndpoint.getFallback();
+                if (fallback != null) {
+                    fallback = fallback.toBuilder()
+                            .loadBalancer(loadBalancers.get(fallback.getApi().getServer()))
+                            .build();
+                }
+
+                Endpoint endpoint = resolvedEndpoint
+                        .toBuilder()
+                        .fallback(fallback)
+                        .requestProcessor(requestProcessor)
+                        .resilienceProcessor(resilienceProcessor)
+                        .apiRateLimiter(apiRateLimiters.get(apiName))
+                        .serverRateLimiter(serverRateLimiters.get(api.getServer()))
+                        .hedgePolicy(hedgePolicies.get(apiName))
+                        .retryPolicy(retryPolicies.get(apiName))
+                        .loadBalancer(loadBalancers.get(api.getServer()))
+                        .exchangeLogger(ExchangeLogger.create(api.getServer(), api))
+                        .requestBatcher(requestBatchers.get(apiName))
+                        .responseCache(responseCaches.get(apiName))
+                        .build();
+                endpoints.computeIfAbsent(serverName, name -> new HashMap<>()).put(apiName, endpoint);
             });
         });
 
-        // Warm-up connections and threads
-        serverRegistry.getServerMap().forEach((serverName, server) -> {
-            apiRegistry.getApiMap().forEach((apiName, api) -> {
-                if (api.isNoWarmUp() || true) {
-                    log.debug("service={} api={} warm-up is disabled. The very first call to {}.{} may timeout or fail if api timeout is small", server, api, server, api);
-                    return;
+        // Warm-up connections and call path
+        warmUpConnections(config, apiRegistry);
+        warmUpCalls(config);
+    }
+
+    /**
+     * Make "config.warmUpCalls" synthetic calls for every api through the full call pipeline (resilience processor,
+     * rx chain and response parsing). A loopback request processor is used, so no request is sent to server, and
+     * api metrics, rate limits and latency stats are not changed.
+     */
+    private void warmUpCalls(Config config) {
+        if (config.getWarmUpCalls() <= 0) {
+            return;
+        }
+        long timeoutMs = config.getWarmUpTimeoutMs() > 0 ? config.getWarmUpTimeoutMs() : DEFAULT_WARM_UP_TIMEOUT_MS;
+        long start = System.currentTimeMillis();
+        IRequestProcessor warmUpRequestProcessor = new WarmUpRequestProcessor();
+
+        int calls = 0;
+        int failedCalls = 0;
+        for (Map.Entry<String, Map<String, Endpoint>> serverEndpoints : endpoints.entrySet()) {
+            for (Endpoint endpoint : serverEndpoints.getValue().values()) {
+                // Endpoints of a api under all server names point to the same server - so we use only one of them
+                Api api = endpoint.getApi();
+                if (endpoint.getServer() == null || api.isNoWarmUp() || !serverEndpoints.getKey().equals(api.getServer())) {
+                    continue;
                 }
-                try {
-                    log.debug("making a warm-up call to service={} api={} - you may see bad api call in server logs", server, api);
-                    callSync(
-                            Call.builder(Map.class)
-                                    .withServerAndApi(serverName, apiName)
-                                    .build()
-                    );
-                } catch (Exception ignored) {
+
+                Endpoint warmUpEndpoint = endpoint.toBuilder()
+                        .requestProcessor(warmUpRequestProcessor)
+                        .resilienceProcessor(warmUpResilienceProcessor(api))
+                        .apiRateLimiter(null)
+                        .serverRateLimiter(null)
+                        .hedgePolicy(null)
+                        .retryPolicy(null)
+                        .loadBalancer(null)
+                        .exchangeLogger(null)
+                        .requestBatcher(null)
+                        .responseCache(null)
+                        .build();
+                Call<?> call = Call.builder(warmUpResponseClass(api)).withEndpoint(warmUpEndpoint).build();
+                for (int i = 0; i < config.getWarmUpCalls(); i++) {
+                    if (System.currentTimeMillis() - start > timeoutMs) {
+                        log.warn("call warm-up did not finish in time: timeoutMs={}", timeoutMs);
+                        return;
+                    }
+                    try {
+                        internalCall(call, warmUpEndpoint).blockingFirst();
+                    } catch (Exception e) {
+                        failedCalls++;
+                    }
+                    calls++;
                 }
-            });
+            }
+        }
+        log.info("call warm-up: calls={}, failedCalls={}, timeTakenMs={}", calls, failedCalls, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return resilience processor for warm-up calls - one for each type of execution, so that warm-up does not
+     * change circuit breaker or bulkhead of the api
+     */
+    private IResilienceProcessor warmUpResilienceProcessor(Api api) {
+        String mode = api.isAsync() ? "async" : api.isVirtualThreads() ? "virtual-threads" : api.isSharedExecutor() ? "shared-executor" : "sync";
+        return resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id("easy-http-warm-up-" + mode)
+                        .concurrency(2)
+                        .useSemaphore(api.isAsync())
+                        .useSharedExecutor(api.isSharedExecutor())
+                        .useVirtualThreads(api.isVirtualThreads())
+                        .build()
+        );
+    }
+
+    private Class<?> warmUpResponseClass(Api api) {
+        if (!Strings.isNullOrEmpty(api.getResponseClass())) {
+            try {
+                return Class.forName(api.getResponseClass(), true, Thread.currentThread().getContextClassLoader());
+            } catch (ClassNotFoundException e) {
+                log.warn("response class not found for warm-up: api={}, responseClass={}", api.getName(), api.getResponseClass());
+            }
+        }
+        return Map.class;
+    }
+
+    /**
+     * Open "server.warmUpConnections" connections in connection pools of all apis (of all hosts) of a server. No
+     * request is sent - only connections are opened (connect and TLS handshake) and kept in the pool. All pools are
+     * warmed-up in parallel, and we wait at most "config.warmUpTimeoutMs" for all of them.
+     */
+    private void warmUpConnections(Config config, ApiRegistry apiRegistry) {
+        long timeoutMs = config.getWarmUpTimeoutMs() > 0 ? config.getWarmUpTimeoutMs() : DEFAULT_WARM_UP_TIMEOUT_MS;
+        long start = System.currentTimeMillis();
+
+        // Make a warm-up task for every pool which we want to warm-up
+        Map<String, AtomicInteger> openedConnections = new ConcurrentHashMap<>();
+        List<Runnable> tasks = new ArrayList<>();
+        endpoints.forEach((serverName, apiEndpoints) -> apiEndpoints.forEach((apiName, endpoint) -> {
+            // Endpoints of a api under all server names point to the same server - so we use only one of them
+            Server server = endpoint.getServer();
+            if (server == null || server.getWarmUpConnections() <= 0 || !serverName.equals(endpoint.getApi().getServer())) {
+                return;
+            } else if (endpoint.getApi().isNoWarmUp()) {
+                log.debug("server={} api={} warm-up is disabled. The very first call may timeout or fail if api timeout is small", server.getName(), apiName);
+                return;
+            }
+            AtomicInteger opened = openedConnections.computeIfAbsent(server.getName(), name -> new AtomicInteger());
+            endpoint.getBaseUrls().forEach(baseUrl -> tasks.add(() -> {
+                long remaining = timeoutMs - (System.currentTimeMillis() - start);
+                if (remaining > 0) {
+                    opened.addAndGet(apiRegistry.warmUp(server, endpoint.getApi(), baseUrl, server.getWarmUpConnections(), remaining));
+                }
+            }));
+        }));
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        // Run all tasks in parallel, and wait for them till timeout
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(tasks.size(), MAX_WARM_UP_THREADS), runnable -> {
+            Thread thread = new Thread(runnable, "easy-http-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?>[] futures = tasks.stream()
+                    .map(task -> CompletableFuture.runAsync(task, executorService))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("connection warm-up did not finish in time: timeoutMs={}", timeoutMs);
+        } catch (Exception e) {
+            log.warn("connection warm-up failed", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // Report result of each server
+        openedConnections.forEach((serverName, opened) -> {
+            log.info("connection warm-up: server={}, connectionsOpened={}, timeTakenMs={}", serverName, opened.get(), System.currentTimeMillis() - start);
         });
     }
 
@@ -159,10 +431,11 @@ class EasyHttpObject implements IEasyHttpImplementation {
     @Override
     public <T> T callSync(Call<T> call) {
         long start = System.currentTimeMillis();
-        String key = call.getServer() + "_" + call.getApi() + "_call_error_time";
+        final Endpoint endpoint = resolveEndpoint(call);
+        String key = endpoint != null ? endpoint.getCallErrorTimeMetric() : call.getServer() + "_" + call.getApi() + "_call_error_time";
         try {
-            T t = internalCall(call).blockingFirst();
-            key = call.getServer() + "_" + call.getApi() + "_call_time";
+            T t = isDirectCall(call, endpoint) ? directCall(call, endpoint) : internalCall(call, endpoint).blockingFirst();
+            key = endpoint.getCallTimeMetric();
             return t;
         } catch (EasyResilienceException e) {
             Optional<EasyResilienceException> ex = easyEasyResilienceException(e);
@@ -199,87 +472,693 @@ class EasyHttpObject implements IEasyHttpImplementation {
      *                                  {@link EasyHttpRequestException}. These resilience exception are thrown when
      *                                  circuit is open, too many calls are made, or request timed out.
      *                                  <p>
+     *                                  For async apis the call does not block - result is given later in the I/O
+     *                                  thread, so keep the subscription till the result is received. Disposing the
+     *                                  subscription cancels the http call.
      */
     @Override
     public <T> Observable<T> callAsync(Call<T> call) {
         long start = System.currentTimeMillis();
+        final Endpoint endpoint = resolveEndpoint(call);
         return Observable.create(observableEmitter -> {
-            internalCall(call)
+            // Call is not blocking for async apis, so subscription is disposed only if downstream is disposed
+            observableEmitter.setDisposable(internalCall(call, endpoint)
                     .subscribe(
                             t -> {
                                 // Log metrics for success call
-                                metrics.observe(call.getServer() + "_" + call.getApi() + "_call_time", (System.currentTimeMillis() - start));
+                                metrics.observe(endpoint.getCallTimeMetric(), (System.currentTimeMillis() - start));
 
                                 observableEmitter.onNext(t);
                                 observableEmitter.onComplete();
                             },
                             throwable -> {
                                 // Log metrics for error call
-                                metrics.observe(call.getServer() + "_" + call.getApi() + "_call_error_time", (System.currentTimeMillis() - start));
-
-                                Exception e;
-                                if (throwable instanceof EasyResilienceException) {
-                                    Optional<EasyResilienceException> ex = easyEasyResilienceException(throwable);
-                                    if (ex.isPresent()) {
-                                        e = ex.get();
-                                    } else {
-                                        e = new EasyHttpRequestException(throwable);
-                                    }
-                                } else if (throwable instanceof EasyHttpRequestException) {
-                                    e = (EasyHttpRequestException) throwable;
-                                } else {
-                                    Optional<EasyResilienceException> err = easyEasyResilienceException(throwable);
-                                    if (err.isPresent()) {
-                                        e = err.get();
-                                    } else {
-                                        e = new RuntimeException(throwable);
-                                    }
-                                }
-                                observableEmitter.onError(e);
-                            })
-                    .dispose();
+                                metrics.observe(endpoint != null ? endpoint.getCallErrorTimeMetric() : call.getServer() + "_" + call.getApi() + "_call_error_time", (System.currentTimeMillis() - start));
+                                observableEmitter.onError(toCallException(throwable));
+                            }));
         });
     }
 
+    @Override
+    public <T> CompletableFuture<T> callFuture(Call<T> call) {
+        return callFuture(call, null);
+    }
+
     /**
-     * Call a HTTP Api. This API is wrapped in other convenience method to be used.
+     * Make a HTTP call which returns a future. Call is subscribed directly (no observable is built around it), and
+     * future is completed in the thread which completes the call (I/O thread for async apis) - or in the given
+     * executor. Cancelling the future cancels the call.
+     */
+    @Override
+    public <T> CompletableFuture<T> callFuture(Call<T> call, Executor executor) {
+        long start = System.currentTimeMillis();
+        final Endpoint endpoint = resolveEndpoint(call);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Observable<T> observable;
+        try {
+            observable = internalCall(call, endpoint);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(toCallException(e));
+            return future;
+        }
+        Disposable disposable = observable.subscribe(
+                t -> {
+                    metrics.observe(endpoint.getCallTimeMetric(), (System.currentTimeMillis() - start));
+                    if (executor == null) {
+                        future.complete(t);
+                    } else {
+                        executor.execute(() -> future.complete(t));
+                    }
+                },
+                throwable -> {
+                    metrics.observe(endpoint != null ? endpoint.getCallErrorTimeMetric() : call.getServer() + "_" + call.getApi() + "_call_error_time", (System.currentTimeMillis() - start));
+                    Exception e = toCallException(throwable);
+                    if (executor == null) {
+                        future.completeExceptionally(e);
+                    } else {
+                        executor.execute(() -> future.completeExceptionally(e));
+                    }
+                });
+        future.whenComplete((t, throwable) -> {
+            if (throwable instanceof CancellationException) {
+                disposable.dispose();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return error to give to the caller of a async call - same as the error thrown by callSync
+     */
+    private Exception toCallException(Throwable throwable) {
+        if (throwable instanceof EasyResilienceException) {
+            Optional<EasyResilienceException> ex = easyEasyResilienceException(throwable);
+            if (ex.isPresent()) {
+                return ex.get();
+            } else {
+                return new EasyHttpRequestException(throwable);
+            }
+        } else if (throwable instanceof EasyHttpRequestException) {
+            return (EasyHttpRequestException) throwable;
+        } else {
+            Optional<EasyResilienceException> err = easyEasyResilienceException(throwable);
+            if (err.isPresent()) {
+                return err.get();
+            } else {
+                return new RuntimeException(throwable);
+            }
+        }
+    }
+
+    @Override
+    public CallResults<Integer> callAll(List<Call<?>> calls, long timeoutMs) {
+        return internalCallAll(calls, null, timeoutMs);
+    }
+
+    @Override
+    public <K> CallResults<K> callAll(Map<K, Call<?>> calls, long timeoutMs) {
+        List<K> keys = new ArrayList<>(calls.keySet());
+        List<Call<?>> callList = new ArrayList<>(keys.size());
+        keys.forEach(key -> callList.add(calls.get(key)));
+        return internalCallAll(callList, CallResults.indexKeys(keys), timeoutMs);
+    }
+
+    /**
+     * Make all calls in parallel and wait for all of them till timeout. Every call gets the timeout as its deadline (if
+     * it does not have a shorter one), so all steps of a call are bounded by the timeout. Calls which are not complete
+     * by the timeout are disposed (in-flight http requests are aborted) and get a timeout error.
+     * <p>
+     * Metrics - no of calls, total time, and time we waited only for the slowest call (after all other calls were
+     * complete).
+     */
+    private <K> CallResults<K> internalCallAll(List<Call<?>> calls, Map<K, Integer> keys, long timeoutMs) {
+        long start = System.currentTimeMillis();
+        int size = calls.size();
+        CallResults<K> results = new CallResults<>(size, keys);
+        metrics.observe(CALL_ALL_WIDTH_METRIC, size);
+        if (size == 0) {
+            return results;
+        }
+
+        // State of every call (0 = running, 1 = result is being set, 2 = done) - a call gets a result only once, even
+        // if it completes at the same time as timeout
+        AtomicIntegerArray states = new AtomicIntegerArray(size);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicLong allButSlowestCompletedAt = new AtomicLong(size == 1 ? start : 0);
+        CountDownLatch latch = new CountDownLatch(size);
+        Runnable onComplete = () -> {
+            if (completed.incrementAndGet() == size - 1) {
+                allButSlowestCompletedAt.set(System.currentTimeMillis());
+            }
+            latch.countDown();
+        };
+
+        CompositeDisposable disposables = new CompositeDisposable();
+        for (int i = 0; i < size; i++) {
+            final int index = i;
+            disposables.add(callAsync(withCallAllDeadline(calls.get(i), timeoutMs)).subscribe(
+                    result -> {
+                        if (setCallResult(states, results, index, result, null)) onComplete.run();
+                    },
+                    throwable -> {
+                        if (setCallResult(states, results, index, null, throwable)) onComplete.run();
+                    },
+                    () -> {
+                        if (setCallResult(states, results, index, null, null)) onComplete.run();
+                    }
+            ));
+        }
+
+        // Wait for all calls - cancel pending calls if we did not get all results in time
+        boolean allCompleted;
+        try {
+            allCompleted = latch.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            allCompleted = false;
+        }
+        if (!allCompleted) {
+            disposables.dispose();
+            EasyResilienceRequestTimeoutException timeout = new EasyResilienceRequestTimeoutException(
+                    new TimeoutException("call did not complete in callAll timeout of " + timeoutMs + "ms")
+            );
+            for (int i = 0; i < size; i++) {
+                if (setCallResult(states, results, i, null, timeout)) {
+                    latch.countDown();
+                }
+            }
+
+            // A call which was setting its result at the timeout counts down the latch once its result is set
+            Uninterruptibles.awaitUninterruptibly(latch);
+        }
+
+        long end = System.currentTimeMillis();
+        metrics.observe(CALL_ALL_TIME_METRIC, end - start);
+        metrics.observe(CALL_ALL_SLOWEST_WAIT_METRIC, end - (allButSlowestCompletedAt.get() > 0 ? allButSlowestCompletedAt.get() : start));
+        return results;
+    }
+
+    /**
+     * @return given call if its deadline (or deadline of its api) is not more than callAll timeout, otherwise a copy of
+     * the call with callAll timeout as deadline
+     */
+    private <T> Call<T> withCallAllDeadline(Call<T> call, long timeoutMs) {
+        long deadline = call.getDeadline();
+        if (deadline <= 0) {
+            Endpoint endpoint = resolveEndpoint(call);
+            deadline = endpoint != null ? endpoint.getApi().getDeadline() : 0;
+        }
+        return deadline > 0 && deadline <= timeoutMs ? call : call.withDeadline(timeoutMs);
+    }
+
+    /**
+     * @return true if result is set - false if call at this index already has a result
+     */
+    private static boolean setCallResult(AtomicIntegerArray states, CallResults<?> results, int index, Object result, Throwable error) {
+        if (!states.compareAndSet(index, 0, 1)) {
+            return false;
+        }
+        if (error != null) {
+            results.setError(index, error);
+        } else {
+            results.setResult(index, result);
+        }
+        states.set(index, 2);
+        return true;
+    }
+
+    /**
+     * @return endpoint for given server and api (null if server and api is not registered)
+     */
+    @Override
+    public Endpoint getEndpoint(String server, String api) {
+        Map<String, Endpoint> apiEndpoints = endpoints.get(server);
+        return apiEndpoints != null ? apiEndpoints.get(api) : null;
+    }
+
+    /**
+     * @return endpoint set in the call, or the registered endpoint for server and api of this call (call is not
+     * changed - a call may be reused after EasyHttp is setup again)
      */
-    private <T> Observable<T> internalCall(Call<T> call) {
+    private <T> Endpoint resolveEndpoint(Call<T> call) {
+        if (call.getEndpoint() != null) {
+            return call.getEndpoint();
+        }
+        return getEndpoint(call.getServer(), call.getApi());
+    }
 
-        final String server = call.getServer();
-        final String api = call.getApi();
-        final String key = server + "-" + api;
+    /**
+     * Call a HTTP Api. This API is wrapped in other convenience method to be used.
+     */
+    <T> Observable<T> internalCall(Call<T> call, Endpoint endpoint) {
 
         // Make sure we have server and api registered
-        if (requestProcessors.get(key) == null) {
-            return Observable.error(new RuntimeException("server=" + server + " api=" + api + " is not registered"));
+        if (endpoint == null) {
+            return Observable.error(new RuntimeException("server=" + call.getServer() + " api=" + call.getApi() + " is not registered"));
         }
 
         // Build request
-        RequestObject requestObject = new RequestObject();
-        requestObject.setServer(server);
-        requestObject.setApi(api);
-        requestObject.setPathParam(call.getPathParams());
-        requestObject.setQueryParam(call.getQueryParam());
-        requestObject.setHeaders(call.getHeaders());
-        requestObject.setBody(call.getBodyAsByteArray());
-        requestObject.setResponseBuilder(call.getResponseBuilder());
+        RequestObject requestObject = buildRequestObject(call, endpoint);
+
+        // Deadline of this call (all steps of the call, including fallback, use time left in the deadline)
+        long deadline = call.getDeadline() > 0 ? call.getDeadline() : endpoint.getApi().getDeadline();
+        if (deadline > 0) {
+            requestObject.setDeadlineNanos(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline));
+        }
+
+        // Single key calls of a api which has a bulk api are sent together in one bulk call
+        if (endpoint.getRequestBatcher() != null) {
+            String batchKey = endpoint.getRequestBatcher().getKey(requestObject);
+            if (batchKey != null) {
+                return applyDeadline(deadline, batchedCall(call, endpoint, batchKey));
+            }
+        }
+
+        // A api which caches responses gives a fresh cached response without making a request
+        if (endpoint.getResponseCache() != null) {
+            return applyDeadline(deadline, cachedCall(call, endpoint, requestObject));
+        }
+
+        // Identical GET calls share one in-flight request
+        if (endpoint.getApi().isCoalesce() && "GET".equals(endpoint.getApi().getMethod())) {
+            return applyDeadline(deadline, coalescedCall(call, endpoint, requestObject));
+        }
 
         // Build a Observable and process it to give final response (in flat map)
-        Observable<T> observable = requestProcessors.get(server + "-" + api)
-                .process(requestObject)
+        Function<RequestObject, Observable<T>> observable = request -> endpoint.getRequestProcessor()
+                .process(request)
                 .flatMap(responseObject -> {
-                    T objectToReturn = call.getResponseBuilder().apply(responseObject.getBody());
+                    // A streaming response is already parsed by request processor
+                    T objectToReturn = responseObject.getDecodedBody() != null
+                            ? (T) responseObject.getDecodedBody()
+                            : call.getResponseBuilder().apply(responseObject.getBody());
                     return Observable.just(objectToReturn);
                 });
 
+        return applyDeadline(deadline, protectedCall(endpoint, requestObject, observable, call.getResponseClass()));
+    }
+
+    /**
+     * Run a request with resilience processor, rate limit, retry and hedge of the api (the ones which are enabled).
+     * In-flight http request is aborted if the call is disposed.
+     *
+     * @param observable gives the observable to make a request - it is called again with a copy of request object
+     *                   for a hedge request
+     */
+    private <T> Observable<T> protectedCall(Endpoint endpoint, RequestObject requestObject, Function<RequestObject, Observable<T>> observable, Class<T> cls) {
+
+        // Send a hedge request if request does not finish in hedge delay
+        if (endpoint.getHedgePolicy() != null) {
+            return hedgedCall(endpoint.getHedgePolicy(), requestObject, request -> attempt(endpoint, request, observable.apply(request), cls));
+        }
+        return attempt(endpoint, requestObject, observable.apply(requestObject), cls).doOnDispose(requestObject::abort);
+    }
+
+    /**
+     * Run a request with resilience processor, rate limit and retry of the api (the ones which are enabled)
+     */
+    private <T> Observable<T> attempt(Endpoint endpoint, RequestObject requestObject, Observable<T> observable, Class<T> cls) {
+
         // Run it with resilience processor;
-        return resilienceProcessors.get(key)
+        Observable<T> resilienceObservable = endpoint.getResilienceProcessor()
                 .executeObservable(
-                        key,
+                        endpoint.getKey(),
                         observable,
-                        call.getResponseClass()
+                        cls
                 );
+
+        // Apply rate limit of api and server (if enabled)
+        Observable<T> request = applyRateLimit(endpoint, resilienceObservable);
+
+        // Retry a failed request (if api retries and error is retryable)
+        if (endpoint.getRetryPolicy() != null) {
+            request = retriedCall(endpoint, requestObject, request);
+        }
+        return request;
+    }
+
+    private <T> RequestObject buildRequestObject(Call<T> call, Endpoint endpoint) {
+        RequestObject requestObject = new RequestObject();
+        requestObject.setServer(endpoint.getServerName());
+        requestObject.setApi(endpoint.getApiName());
+        requestObject.setPathParam(call.getPathParams());
+        requestObject.setQueryParam(call.getQueryParam());
+        requestObject.setHeaders(call.getHeaders());
+        requestObject.setBody(call.getBodyAsByteArray());
+        requestObject.setResponseBuilder(call.getResponseBuilder());
+        requestObject.setResponseStreamBuilder(call.getResponseStreamBuilder());
+        requestObject.setRoutingKey(call.getRoutingKey());
+        requestObject.setEndpoint(endpoint);
+        return requestObject;
+    }
+
+    /**
+     * @return true if a sync call can be made without building any observable - i.e. a sync api which does not use
+     * a step that needs rx (deadline, rate limit wait, retry, hedge, batching, cache or coalesce)
+     */
+    private <T> boolean isDirectCall(Call<T> call, Endpoint endpoint) {
+        if (endpoint == null) {
+            return false;
+        }
+        Api api = endpoint.getApi();
+        return !api.isAsync()
+                && !api.isCoalesce()
+                && api.getDeadline() <= 0
+                && call.getDeadline() <= 0
+                && endpoint.getApiRateLimiter() == null
+                && endpoint.getServerRateLimiter() == null
+                && endpoint.getRetryPolicy() == null
+                && endpoint.getHedgePolicy() == null
+                && endpoint.getRequestBatcher() == null
+                && endpoint.getResponseCache() == null;
+    }
+
+    /**
+     * Make a sync call as plain method calls: resilience processor -> request processor -> response builder. Errors
+     * are same as "internalCall(call, endpoint).blockingFirst()" gives.
+     */
+    private <T> T directCall(Call<T> call, Endpoint endpoint) {
+        RequestObject requestObject = buildRequestObject(call, endpoint);
+        IRequestProcessor requestProcessor = endpoint.getRequestProcessor();
+        return endpoint.getResilienceProcessor().executeBlocking(
+                endpoint.getKey(),
+                () -> {
+                    ResponseObject responseObject = requestProcessor.processBlocking(requestObject);
+                    // A streaming response is already parsed by request processor
+                    if (responseObject.getDecodedBody() != null) {
+                        return (T) responseObject.getDecodedBody();
+                    }
+                    try {
+                        return call.getResponseBuilder().apply(responseObject.getBody());
+                    } catch (Exception e) {
+                        // Same as a error of response builder in a observable gives with "blockingFirst()"
+                        throw Exceptions.propagate(e);
+                    }
+                },
+                call.getResponseClass()
+        );
+    }
+
+    /**
+     * Fail the call with timeout if it is not complete by the deadline - this also covers time spent in rate limiter
+     * and in bulkhead queue
+     */
+    private <T> Observable<T> applyDeadline(long deadline, Observable<T> request) {
+        if (deadline <= 0) {
+            return request;
+        }
+        return request.timeout(deadline, TimeUnit.MILLISECONDS, Observable.error(() -> new RequestTimeoutException("deadline of " + deadline + "ms is over", null)));
+    }
+
+    /**
+     * Make a request, and retry it if it fails with a retryable error. Every attempt goes through resilience processor
+     * (so it is counted by circuit breaker and bulkhead) and rate limits, and a retry is not made if circuit is open,
+     * if backoff does not fit in the time left in the deadline, or if retry budget is exhausted. A call without a
+     * deadline is bounded only by max attempts of the api.
+     * <p>
+     * Metrics - retries made, calls which succeeded after a retry, and retries not made due to budget.
+     */
+    private <T> Observable<T> retriedCall(Endpoint endpoint, RequestObject requestObject, Observable<T> request) {
+        RetryPolicy retryPolicy = endpoint.getRetryPolicy();
+        return Observable.defer(() -> {
+            retryPolicy.onCall();
+            AtomicInteger attempts = new AtomicInteger(1);
+            return request
+                    .retryWhen(errors -> errors.flatMap(error -> {
+                        int attempt = attempts.get();
+                        if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(error)) {
+                            return Observable.<Long>error(error);
+                        }
+                        long backoffMs = retryPolicy.getBackoffMs(attempt);
+                        if (requestObject.getRemainingTimeMs() <= backoffMs) {
+                            return Observable.<Long>error(error);
+                        }
+                        if (!retryPolicy.tryAcquireRetry()) {
+                            metrics.inc(endpoint.getRetryBudgetExhaustedMetric());
+                            return Observable.<Long>error(error);
+                        }
+                        attempts.incrementAndGet();
+                        metrics.inc(endpoint.getRetryMetric());
+                        return Observable.timer(backoffMs, TimeUnit.MILLISECONDS);
+                    }))
+                    .doOnNext(t -> {
+                        if (attempts.get() > 1) {
+                            metrics.inc(endpoint.getRetrySuccessMetric());
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Make a request, and make a second (hedge) request if first one is not finished in hedge delay (and we have
+     * budget for hedge). Result of the first request to finish is used and the other request is aborted. Latency of
+     * the request which gives the result is recorded in hedge policy.
+     * <p>
+     * Hedge request uses a copy of the request object (request processor adds headers to it, and each http request
+     * is aborted with its own request object). If one of the requests fails then we wait for the other one (if it is
+     * sent) - the call fails only if both requests fail (with the error of the first request), or if first request
+     * fails before a hedge request is sent.
+     */
+    static <T> Observable<T> hedgedCall(HedgePolicy hedgePolicy, RequestObject requestObject, Function<RequestObject, Observable<T>> attempt) {
+        return Observable.defer(() -> {
+            hedgePolicy.onCall();
+            long start = System.currentTimeMillis();
+            long delayMs = hedgePolicy.getDelayMs();
+            if (delayMs == Long.MAX_VALUE) {
+                return attempt.apply(requestObject).doOnNext(t -> hedgePolicy.recordLatency(System.currentTimeMillis() - start));
+            }
+
+            HedgeState state = new HedgeState();
+            Observable<T> primary = attempt.apply(requestObject)
+                    .doOnNext(t -> hedgePolicy.recordLatency(System.currentTimeMillis() - start))
+                    .onErrorResumeNext(state::onPrimaryError)
+                    .doOnDispose(requestObject::abort);
+            Observable<T> hedge = Observable.timer(delayMs, TimeUnit.MILLISECONDS)
+                    .flatMap(ignored -> {
+                        if (!state.tryStartHedge(hedgePolicy)) {
+                            return Observable.<T>never();
+                        }
+                        long hedgeStart = System.currentTimeMillis();
+                        RequestObject hedgeRequestObject = requestObject.copy();
+                        return attempt.apply(hedgeRequestObject)
+                                .doOnNext(t -> hedgePolicy.recordLatency(System.currentTimeMillis() - hedgeStart))
+                                .onErrorResumeNext(state::onHedgeError)
+                                .doOnDispose(hedgeRequestObject::abort);
+                    });
+            return Observable.merge(primary, hedge).take(1);
+        });
+    }
+
+    /**
+     * Decides what to do when one of the requests of a hedged call fails - an error is given to the caller only when
+     * there is no other request which can still give the result.
+     */
+    private static class HedgeState {
+        private boolean hedgeSent;
+        private boolean hedgeFailed;
+        private Throwable primaryError;
+
+        synchronized boolean tryStartHedge(HedgePolicy hedgePolicy) {
+            hedgeSent = hedgePolicy.tryAcquireHedge();
+            return hedgeSent;
+        }
+
+        synchronized <T> Observable<T> onPrimaryError(Throwable e) {
+            if (!hedgeSent || hedgeFailed) {
+                return Observable.error(e);
+            }
+            primaryError = e;
+            return Observable.never();
+        }
+
+        synchronized <T> Observable<T> onHedgeError(Throwable e) {
+            if (primaryError != null) {
+                return Observable.error(primaryError);
+            }
+            hedgeFailed = true;
+            return Observable.never();
+        }
+    }
+
+    /**
+     * Make a call which gets its response from a bulk call (made with keys of all calls in the batch)
+     */
+    private <T> Observable<T> batchedCall(Call<T> call, Endpoint endpoint, String key) {
+        return Observable.defer(() -> Observable.fromCompletionStage(endpoint.getRequestBatcher().add(key)))
+                .map(bytes -> decode(call, bytes));
+    }
+
+    /**
+     * Build response object of the call from a response body (which was not parsed by request processor)
+     */
+    private <T> T decode(Call<T> call, byte[] body) throws Exception {
+        return call.getResponseStreamBuilder() != null
+                ? call.getResponseStreamBuilder().apply(new ByteArrayInputStream(body != null ? body : new byte[0]))
+                : call.getResponseBuilder().apply(body);
+    }
+
+    /**
+     * Make a call which is answered from cache of the api if we have a fresh response - it does not go to resilience
+     * processor or rate limiter in this case. Otherwise request is made (with "If-None-Match" if we have a response to
+     * revalidate) and its response is cached. A stale response in "stale-while-revalidate" time is given to the call
+     * and it is revalidated in background (by only one call).
+     */
+    private <T> Observable<T> cachedCall(Call<T> call, Endpoint endpoint, RequestObject requestObject) {
+        ResponseCache responseCache = endpoint.getResponseCache();
+        return Observable.defer(() -> {
+            String key = responseCache.key(endpoint.getApi(), requestObject);
+            ResponseCache.Entry entry = responseCache.get(key);
+            if (entry != null && entry.isFresh()) {
+                metrics.inc(endpoint.getCacheHitMetric());
+                return Observable.just(cachedResponse(entry));
+            }
+            if (entry != null && entry.isStaleWhileRevalidate()) {
+                metrics.inc(endpoint.getCacheStaleHitMetric());
+                if (entry.tryStartRevalidation()) {
+                    fetchToCache(endpoint, buildRequestObject(call, endpoint), key, entry)
+                            .doFinally(entry::endRevalidation)
+                            .subscribe(
+                                    responseObject -> {
+                                    },
+                                    throwable -> log.debug("Failed to revalidate cached response: server={}, api={}", endpoint.getServerName(), endpoint.getApiName(), throwable)
+                            );
+                }
+                return Observable.just(cachedResponse(entry));
+            }
+            metrics.inc(endpoint.getCacheMissMetric());
+            return fetchToCache(endpoint, requestObject, key, entry);
+        }).map(responseObject -> decode(call, responseObject.getBody()));
+    }
+
+    /**
+     * Make a request and cache its response - if we have a cached response with a ETag then request is sent with
+     * "If-None-Match", and a "304 Not Modified" gives the cached response
+     */
+    private Observable<ResponseObject> fetchToCache(Endpoint endpoint, RequestObject requestObject, String key, ResponseCache.Entry entry) {
+        ResponseCache responseCache = endpoint.getResponseCache();
+
+        // Response body is needed to cache it, so we do not parse response stream in request processor. Headers of
+        // call are copied - they must not get the "If-None-Match" header.
+        requestObject.setResponseStreamBuilder(null);
+        if (entry != null && entry.getEtag() != null) {
+            Map<String, Object> headers = requestObject.getHeaders() != null ? new HashMap<>(requestObject.getHeaders()) : new HashMap<>();
+            headers.put("If-None-Match", entry.getEtag());
+            requestObject.setHeaders(headers);
+        }
+
+        return protectedCall(endpoint, requestObject, request -> endpoint.getRequestProcessor().process(request), ResponseObject.class)
+                .map(responseObject -> {
+                    if (responseObject.getStatusCode() == 304) {
+                        if (entry == null) {
+                            return responseObject;
+                        }
+                        metrics.inc(endpoint.getCacheRevalidatedMetric());
+                        return cachedResponse(responseCache.revalidated(key, entry, responseObject));
+                    }
+                    responseCache.put(key, responseObject);
+                    return responseObject;
+                });
+    }
+
+    private ResponseObject cachedResponse(ResponseCache.Entry entry) {
+        return ResponseObject.builder().success(true).statusCode(200).body(entry.getBody()).build();
+    }
+
+    /**
+     * Make a bulk call for a batch of keys - it goes through resilience processor and rate limits of the bulk api
+     */
+    private Observable<Object> bulkCall(String serverName, Api api, List<String> keys) {
+        Endpoint bulkEndpoint = getEndpoint(serverName, api.getBatchApi());
+        if (bulkEndpoint == null) {
+            return Observable.error(new RuntimeException("server=" + serverName + " api=" + api.getBatchApi() + " is not registered"));
+        }
+        metrics.observe(bulkEndpoint.getServerName() + "_" + api.getName() + "_batch_size", keys.size());
+        Call<Object> call = Call.builder(Object.class)
+                .withEndpoint(bulkEndpoint)
+                .addQueryParam(api.getBatchParam(), String.join(api.getBatchKeySeparator(), keys))
+                .build();
+        return internalCall(call, bulkEndpoint);
+    }
+
+    /**
+     * Make a call which shares the in-flight request of an identical call (same endpoint, path params, query params
+     * and headers). Only the shared request goes through resilience processor and rate limits, and each call builds
+     * its own response object from the shared response.
+     * <p>
+     * Shared request is reference counted - it is cancelled when all calls waiting for it are disposed (e.g. timed out).
+     */
+    private <T> Observable<T> coalescedCall(Call<T> call, Endpoint endpoint, RequestObject requestObject) {
+
+        // Response bytes are needed to build response of each call - so a streaming response is not used
+        if (requestObject.getResponseStreamBuilder() != null) {
+            if (coalescedStreamingApis.add(endpoint.getKey())) {
+                log.warn("streaming response is not used for api with coalesce=true (response is read as bytes): server={}, api={}", endpoint.getServerName(), endpoint.getApiName());
+            }
+            requestObject.setResponseStreamBuilder(null);
+        }
+        Observable<ResponseObject> request = applyRateLimit(
+                endpoint,
+                endpoint.getResilienceProcessor().executeObservable(endpoint.getKey(), endpoint.getRequestProcessor().process(requestObject), ResponseObject.class)
+        ).firstOrError().toObservable().doOnDispose(requestObject::abort);
+
+        // Maps are copied - request processor may add headers to the request
+        List<Object> key = Arrays.asList(
+                endpoint.getKey(),
+                call.getPathParams() != null ? new HashMap<>(call.getPathParams()) : null,
+                call.getQueryParam() != null ? new HashMap<>(call.getQueryParam()) : null,
+                call.getHeaders() != null ? new HashMap<>(call.getHeaders()) : null
+        );
+
+        return Observable.defer(() -> {
+            Observable<ResponseObject> inFlight = inFlightCalls.get(key);
+            if (inFlight == null) {
+                AtomicReference<Observable<ResponseObject>> self = new AtomicReference<>();
+                self.set(request.doFinally(() -> inFlightCalls.remove(key, self.get())).publish().refCount());
+                inFlight = inFlightCalls.putIfAbsent(key, self.get());
+                if (inFlight == null) {
+                    inFlight = self.get();
+                }
+            }
+            return inFlight;
+        }).map(responseObject -> call.getResponseBuilder().apply(responseObject.getBody()));
+    }
+
+    /**
+     * Apply rate limit of api and server (if enabled)
+     */
+    private <T> Observable<T> applyRateLimit(Endpoint endpoint, Observable<T> resilienceObservable) {
+        if (endpoint.getApiRateLimiter() == null && endpoint.getServerRateLimiter() == null) {
+            return resilienceObservable;
+        }
+        return Observable.defer(() -> {
+            TokenBucketRateLimiter apiRateLimiter = endpoint.getApiRateLimiter();
+            TokenBucketRateLimiter serverRateLimiter = endpoint.getServerRateLimiter();
+            long apiWaitNanos = 0;
+            if (apiRateLimiter != null) {
+                apiWaitNanos = apiRateLimiter.tryAcquire();
+                if (apiWaitNanos < 0) {
+                    return Observable.error(new RateLimitedException("id=" + apiRateLimiter.getId(), null));
+                }
+            }
+            long serverWaitNanos = 0;
+            if (serverRateLimiter != null) {
+                serverWaitNanos = serverRateLimiter.tryAcquire();
+                if (serverWaitNanos < 0) {
+                    // Call is not made - give back the token of api
+                    if (apiRateLimiter != null) {
+                        apiRateLimiter.release();
+                    }
+                    return Observable.error(new RateLimitedException("id=" + serverRateLimiter.getId(), null));
+                }
+            }
+            long waitNanos = Math.max(apiWaitNanos, serverWaitNanos);
+
+            // Wait for our turn without blocking a thread
+            if (waitNanos > 0) {
+                return Observable.timer(waitNanos, TimeUnit.NANOSECONDS).flatMap(ignored -> resilienceObservable);
+            }
+            return resilienceObservable;
+        });
     }
 
     // Make sure we have initialized resilienceManager
@@ -1,8 +1,14 @@
 package io.github.devlibx.easy.http.util;
 
 import io.github.devlibx.easy.http.config.Config;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.reactivex.rxjava3.core.Observable;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public interface IEasyHttpImplementation {
 
     /**
@@ -23,9 +29,46 @@ public interface IEasyHttpImplementation {
     <T> T callSync(Call<T> call);
 
     /**
-     * Call api in async
+     * Call api in async - disposing the subscription of the observable cancels the call
      *
      * @return observable to notify the final result or error
      */
     <T> Observable<T> callAsync(Call<T> call);
+
+    /**
+     * Call api in async
+     *
+     * @return future to give the final result or error
+     */
+    <T> CompletableFuture<T> callFuture(Call<T> call);
+
+    /**
+     * Call api in async - future is completed in the given executor
+     *
+     * @return future to give the final result or error
+     */
+    <T> CompletableFuture<T> callFuture(Call<T> call, Executor executor);
+
+    /**
+     * Make all calls in parallel and wait till all of them are complete or timeout is over
+     *
+     * @return result (or error) of every call at the index of the call
+     */
+    CallResults<Integer> callAll(List<Call<?>> calls, long timeoutMs);
+
+    /**
+     * Make all calls in parallel and wait till all of them are complete or timeout is over
+     *
+     * @return result (or error) of every call with the key of the call
+     */
+    <K> CallResults<K> callAll(Map<K, Call<?>> calls, long timeoutMs);
+
+    /**
+     * Get the pre-resolved endpoint for a server and api
+     *
+     * @return endpoint for server and api (null if not registered or not supported by this implementation)
+     */
+    default Endpoint getEndpoint(String server, String api) {
+        return null;
+    }
 }
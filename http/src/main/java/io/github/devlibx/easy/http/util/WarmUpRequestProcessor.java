@@ -0,0 +1,47 @@
+package io.github.devlibx.easy.http.util;
+
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.registry.Endpoint;
+import io.reactivex.rxjava3.core.Observable;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A loopback request processor used to warm-up the call pipeline at setup. It does the work of a real processor which
+ * does not need network (build URI, process headers, parse response) and gives a "{}" response without making a
+ * http call.
+ */
+class WarmUpRequestProcessor implements IRequestProcessor {
+    private static final byte[] BODY = "{}".getBytes(StandardCharsets.UTF_8);
+    private final StringHelper stringHelper = new StringHelper();
+
+    @Override
+    public Observable<ResponseObject> process(RequestObject requestObject) {
+        return Observable.fromCallable(() -> {
+            Endpoint endpoint = requestObject.getEndpoint();
+            try {
+                endpoint.getApi().getUriTemplate().toUri(endpoint.getBaseUrl(), requestObject.getPathParam(), requestObject.getQueryParam(), stringHelper);
+            } catch (IllegalArgumentException ignored) {
+                // Warm-up call does not have path params - URI may not be valid
+            }
+            requestObject.preProcessHeaders();
+
+            ResponseObject responseObject = new ResponseObject();
+            responseObject.setBody(BODY);
+            responseObject.setStatusCode(200);
+            responseObject.setSuccess(true);
+            if (requestObject.getResponseStreamBuilder() != null) {
+                responseObject.setDecodedBody(requestObject.getResponseStreamBuilder().apply(new ByteArrayInputStream(BODY)));
+            }
+            return responseObject;
+        });
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
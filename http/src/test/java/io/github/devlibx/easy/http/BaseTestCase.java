@@ -18,10 +18,14 @@ import org.apache.http.HttpClientConnection;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static ch.qos.logback.classic.Level.OFF;
 
 public abstract class BaseTestCase {
     protected LocalHttpServer localHttpServer;
+    protected ExecutorService localHttpServerExecutor;
     protected Injector injector;
 
     @BeforeEach
@@ -33,8 +37,9 @@ public abstract class BaseTestCase {
         LoggingHelper.getLogger(HttpClientConnection.class).setLevel(OFF);
         LoggingHelper.getLogger(AsyncRequestProcessor.class).setLevel(OFF);
 
-        // Start server
-        localHttpServer = new LocalHttpServer();
+        // Start server - requests are handled in parallel, so a slow "/delay" request does not delay other requests
+        localHttpServerExecutor = Executors.newCachedThreadPool();
+        localHttpServer = new LocalHttpServer(localHttpServerExecutor);
         localHttpServer.startServerInThread();
 
         // Setup injector
@@ -60,6 +65,7 @@ public abstract class BaseTestCase {
     @AfterEach
     public void tearDown() throws Exception {
         localHttpServer.stopServer();
+        localHttpServerExecutor.shutdownNow();
         EasyHttp.shutdown();
     }
 }
@@ -0,0 +1,62 @@
+package io.github.devlibx.easy.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestObjectTest {
+
+    @Test
+    public void testCopyHasOwnHeaders() {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("a", "b");
+        RequestObject requestObject = new RequestObject();
+        requestObject.setServer("server");
+        requestObject.setHeaders(headers);
+        requestObject.abort();
+
+        RequestObject copy = requestObject.copy();
+        copy.getHeaders().put("c", "d");
+        assertEquals("server", copy.getServer());
+        assertNotSame(requestObject.getHeaders(), copy.getHeaders());
+        assertFalse(requestObject.getHeaders().containsKey("c"));
+        assertFalse(copy.isAborted());
+    }
+
+    @Test
+    public void testPreProcessHeadersDoesNotChangeHeadersOfCall() {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("a", "b");
+        RequestObject requestObject = new RequestObject();
+        requestObject.setHeaders(headers);
+        requestObject.preProcessHeaders();
+
+        assertEquals("application/json", requestObject.getHeaders().get("Content-Type"));
+        assertFalse(headers.containsKey("Content-Type"));
+    }
+
+    @Test
+    public void testAbort() {
+        AtomicInteger aborts = new AtomicInteger();
+        RequestObject requestObject = new RequestObject();
+
+        // Running request is aborted right away
+        requestObject.setAbortAction(aborts::incrementAndGet);
+        requestObject.abort();
+        assertTrue(requestObject.isAborted());
+        assertEquals(1, aborts.get());
+
+        // A request which starts after abort is aborted as soon as it starts
+        RequestObject notStarted = new RequestObject();
+        notStarted.abort();
+        notStarted.setAbortAction(aborts::incrementAndGet);
+        assertEquals(2, aborts.get());
+    }
+}
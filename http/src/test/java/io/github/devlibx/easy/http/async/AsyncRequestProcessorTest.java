@@ -12,12 +12,15 @@ import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRe
 import io.github.devlibx.easy.http.sync.SyncRequestTest.Payload;
 import io.github.devlibx.easy.http.util.Call;
 import io.github.devlibx.easy.http.util.EasyHttp;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -27,8 +30,10 @@ import java.util.concurrent.atomic.AtomicReference;
 import static io.github.devlibx.easy.http.util.EasyHttp.callAsync;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 @SuppressWarnings({"ResultOfMethodCallIgnored", "rawtypes"})
 @Slf4j
@@ -123,7 +128,9 @@ public class AsyncRequestProcessorTest extends BaseTestCase {
         long runningThreadId = Thread.currentThread().getId();
         AtomicLong successThreadId = new AtomicLong();
         log.info("Running in Thread={}", Thread.currentThread().getName());
-        callAsync(
+
+        // Async call does not block - result comes later in I/O thread, and disposing the subscription cancels the call
+        Disposable disposable = callAsync(
                 Call.builder(Map.class)
                         .withServerAndApi("testServer", "delay_timeout_5000")
                         .addQueryParam("delay", 500)
@@ -142,11 +149,11 @@ public class AsyncRequestProcessorTest extends BaseTestCase {
                         log.error("Unexpected exception: e={}, cls={}", throwable.getMessage(), throwable.getClass());
                     }
                     wait.countDown();
-                })
-                .dispose();
+                });
         wait.await(10, TimeUnit.SECONDS);
+        disposable.dispose();
         assertEquals(1, successCount.get());
-        assertEquals(runningThreadId, successThreadId.get(), "Running and success callback thread must be same");
+        assertNotEquals(runningThreadId, successThreadId.get(), "Success callback must not run in the calling thread");
     }
 
     @Test
@@ -188,9 +195,10 @@ public class AsyncRequestProcessorTest extends BaseTestCase {
         CountDownLatch wait = new CountDownLatch(count);
         AtomicInteger overflowExceptionCount = new AtomicInteger();
         AtomicInteger successCount = new AtomicInteger();
+        CompositeDisposable disposables = new CompositeDisposable();
         ParallelThread parallelThread = new ParallelThread(count, "testRejectRequest");
         parallelThread.execute(() -> {
-            callAsync(
+            disposables.add(callAsync(
                     Call.builder(Map.class)
                             .withServerAndApi("testServer", "delay_timeout_5000")
                             .addQueryParam("delay", 500)
@@ -207,10 +215,10 @@ public class AsyncRequestProcessorTest extends BaseTestCase {
                             log.error("Unexpected exception: e={}, cls={}", throwable.getMessage(), throwable.getClass());
                         }
                         wait.countDown();
-                    })
-                    .dispose();
+                    }));
         });
         wait.await(10, TimeUnit.SECONDS);
+        disposables.dispose();
         assertEquals(6, overflowExceptionCount.get());
         assertEquals(4, successCount.get());
     }
@@ -284,4 +292,45 @@ public class AsyncRequestProcessorTest extends BaseTestCase {
         assertEquals("str_89", headers.getList("String_header", String.class).get(0));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCallFuture() throws Exception {
+        int delay = 10;
+        Map result = EasyHttp.callFuture(
+                Call.builder(Map.class)
+                        .withServerAndApi("testServer", "delay_timeout_5000")
+                        .addQueryParam("delay", delay)
+                        .build()
+        ).get(10, TimeUnit.SECONDS);
+        assertEquals(delay + "", result.get("delay"));
+        assertEquals("some data", result.get("data"));
+
+        // Future is completed with same error as callSync gives
+        try {
+            EasyHttp.callFuture(
+                    Call.builder(Map.class)
+                            .withServerAndApi("testServer", "delay_timeout_10")
+                            .addQueryParam("delay", 100)
+                            .build()
+            ).get(10, TimeUnit.SECONDS);
+            fail("we must get a timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof EasyResilienceRequestTimeoutException || e.getCause() instanceof EasyRequestTimeOutException, "error=" + e.getCause());
+        }
+
+        // Future is completed in the given executor
+        AtomicBoolean completedInExecutor = new AtomicBoolean();
+        Map resultInExecutor = EasyHttp.callFuture(
+                Call.builder(Map.class)
+                        .withServerAndApi("testServer", "delay_timeout_5000")
+                        .addQueryParam("delay", delay)
+                        .build(),
+                runnable -> {
+                    completedInExecutor.set(true);
+                    runnable.run();
+                }
+        ).get(10, TimeUnit.SECONDS);
+        assertEquals(delay + "", resultInExecutor.get("delay"));
+        assertTrue(completedInExecutor.get());
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.config.Api;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExchangeLoggerTest {
+
+    private Api api(double sampleRate) {
+        Api api = new Api();
+        api.setName("getUser");
+        api.setExchangeLogSampleRate(sampleRate);
+        api.setExchangeLogMaxBodyBytes(10);
+        return api;
+    }
+
+    @Test
+    public void testNoLoggerIfApiDoesNotLogExchanges() {
+        assertNull(ExchangeLogger.create("testServer", api(0)));
+    }
+
+    @Test
+    public void testSampling() {
+        ExchangeLogger exchangeLogger = new ExchangeLogger("testServer", api(0.1));
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (exchangeLogger.start("GET", URI.create("http://localhost/users/1"), new RequestObject()) != null) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 500 && sampled < 1500, "sampled=" + sampled);
+    }
+
+    @Test
+    public void testHeadersAreRedactedAndBodiesAreTruncated() {
+        ExchangeLogger exchangeLogger = new ExchangeLogger("testServer", api(1));
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("authorization", "Bearer secret");
+        headers.put("X-Trace", "abc");
+        RequestObject requestObject = new RequestObject();
+        requestObject.setHeaders(headers);
+        requestObject.setBody("{\"name\":\"user\"}".getBytes());
+
+        ExchangeLogger.Exchange exchange = exchangeLogger.start("POST", URI.create("http://localhost/users"), requestObject);
+        assertNotNull(exchange);
+        exchange.complete(200, "{\"id\":1}".getBytes(), null);
+
+        String log = exchange.toString();
+        assertFalse(log.contains("secret"), log);
+        assertTrue(log.contains("authorization=****"), log);
+        assertTrue(log.contains("X-Trace=abc"), log);
+        assertTrue(log.contains("requestBody={\"name\":\"u...(15 bytes)"), log);
+        assertTrue(log.contains("responseBody={\"id\":1}"), log);
+        assertTrue(log.contains("statusCode=200"), log);
+        assertEquals("Bearer secret", requestObject.getHeaders().get("authorization"));
+    }
+}
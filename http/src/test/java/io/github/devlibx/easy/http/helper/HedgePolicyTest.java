@@ -0,0 +1,49 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.config.Api;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HedgePolicyTest {
+
+    @Test
+    public void testFixedDelay() {
+        Api api = new Api();
+        api.setHedgeDelayMs(30);
+        HedgePolicy hedgePolicy = new HedgePolicy(api);
+        assertEquals(30, hedgePolicy.getDelayMs());
+    }
+
+    @Test
+    public void testPercentileDelay() {
+        Api api = new Api();
+        api.setHedgePercentile(90);
+        HedgePolicy hedgePolicy = new HedgePolicy(api);
+
+        // No hedge till we have enough samples
+        assertEquals(Long.MAX_VALUE, hedgePolicy.getDelayMs());
+        for (int i = 0; i < 64; i++) {
+            hedgePolicy.recordLatency(i < 57 ? 10 : 100);
+        }
+        assertEquals(100, hedgePolicy.getDelayMs());
+    }
+
+    @Test
+    public void testHedgeBudget() {
+        Api api = new Api();
+        api.setHedgeBudgetPercent(10);
+        HedgePolicy hedgePolicy = new HedgePolicy(api);
+
+        // 10 calls give budget for 1 hedge request
+        for (int i = 0; i < 9; i++) {
+            hedgePolicy.onCall();
+        }
+        assertFalse(hedgePolicy.tryAcquireHedge());
+        hedgePolicy.onCall();
+        assertTrue(hedgePolicy.tryAcquireHedge());
+        assertFalse(hedgePolicy.tryAcquireHedge());
+    }
+}
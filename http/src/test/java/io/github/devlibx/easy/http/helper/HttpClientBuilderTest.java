@@ -0,0 +1,88 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Server;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class HttpClientBuilderTest {
+
+    private Api api(String name) {
+        Api api = new Api();
+        api.setName(name);
+        return api;
+    }
+
+    @Test
+    public void testApisOfServerShareClientWithSharedConnectionPool() {
+        HttpClientBuilder httpClientBuilder = new HttpClientBuilder();
+        Server server = new Server();
+        server.setName("testServer");
+        server.setHost("localhost");
+        server.setSharedConnectionPool(true);
+
+        CloseableHttpClient first = httpClientBuilder.buildClient(server, api("first"), CloseableHttpClient.class);
+        CloseableHttpClient second = httpClientBuilder.buildClient(server, api("second"), CloseableHttpClient.class);
+        assertSame(first, second);
+        httpClientBuilder.shutdown();
+    }
+
+    @Test
+    public void testEveryApiHasItsOwnClientByDefault() {
+        HttpClientBuilder httpClientBuilder = new HttpClientBuilder();
+        Server server = new Server();
+        server.setName("testServer");
+        server.setHost("localhost");
+
+        CloseableHttpClient first = httpClientBuilder.buildClient(server, api("first"), CloseableHttpClient.class);
+        CloseableHttpClient second = httpClientBuilder.buildClient(server, api("second"), CloseableHttpClient.class);
+        assertNotSame(first, second);
+        httpClientBuilder.shutdown();
+    }
+
+    @Test
+    public void testWarmUpOpensConnections() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            HttpClientBuilder httpClientBuilder = new HttpClientBuilder();
+            Server server = new Server();
+            server.setName("testServer");
+            server.setHost("localhost");
+            server.setPort(serverSocket.getLocalPort());
+            Api api = api("first");
+            api.setConcurrency(5);
+
+            httpClientBuilder.buildClient(server, api, CloseableHttpClient.class);
+            assertEquals(3, httpClientBuilder.warmUp(server, api, server.getUrl(), 3, 1000));
+
+            // Pool is warmed-up only once
+            assertEquals(0, httpClientBuilder.warmUp(server, api, server.getUrl(), 3, 1000));
+            httpClientBuilder.shutdown();
+        }
+    }
+
+    @Test
+    public void testPoolOfAdaptiveConcurrencyApiHasMaxLimitConnections() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            HttpClientBuilder httpClientBuilder = new HttpClientBuilder();
+            Server server = new Server();
+            server.setName("testServer");
+            server.setHost("localhost");
+            server.setPort(serverSocket.getLocalPort());
+            Api api = api("first");
+            api.setConcurrency(2);
+            api.setAdaptiveConcurrency(true);
+            api.setMaxConcurrency(4);
+
+            // Pool is not resized with the adaptive limit - it has connections for the max limit
+            httpClientBuilder.buildClient(server, api, CloseableHttpClient.class);
+            assertEquals(4, httpClientBuilder.warmUp(server, api, server.getUrl(), 10, 1000));
+            httpClientBuilder.shutdown();
+        }
+    }
+}
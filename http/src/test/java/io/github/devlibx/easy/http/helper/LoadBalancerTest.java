@@ -0,0 +1,81 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.config.Server;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LoadBalancerTest {
+
+    private Server server() {
+        Server server = new Server();
+        server.setName("testServer");
+        server.setHosts(Arrays.asList("host1:8080", "host2:8080"));
+        server.setEjectAfterConsecutiveFailures(3);
+        return server;
+    }
+
+    @Test
+    public void testUrls() {
+        Server server = server();
+        server.setHosts(Arrays.asList("host1", "host2:8081"));
+        assertEquals(Arrays.asList("http://host1:80", "http://host2:8081"), server.getUrls());
+    }
+
+    @Test
+    public void testHostWithLessInFlightCallsIsSelected() {
+        LoadBalancer loadBalancer = new LoadBalancer(server());
+        loadBalancer.onStart(0);
+        loadBalancer.onStart(0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, loadBalancer.select());
+        }
+    }
+
+    @Test
+    public void testHostIsEjectedAfterConsecutiveFailures() {
+        LoadBalancer loadBalancer = new LoadBalancer(server());
+
+        // Host 1 is busy, but host 0 is ejected - so host 1 must be used
+        loadBalancer.onStart(1);
+        for (int i = 0; i < 3; i++) {
+            loadBalancer.onStart(0);
+            loadBalancer.onFailure(0);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, loadBalancer.select());
+        }
+    }
+
+    @Test
+    public void testSameRoutingKeyGoesToSameHost() {
+        Server server = server();
+        server.setHosts(Arrays.asList("host1:8080", "host2:8080", "host3:8080", "host4:8080"));
+        LoadBalancer loadBalancer = new LoadBalancer(server);
+        for (int key = 0; key < 100; key++) {
+            int host = loadBalancer.select("user-" + key);
+            assertEquals(host, loadBalancer.select("user-" + key));
+
+            // A new load balancer (e.g. another app instance) must route the key to the same host
+            assertEquals(host, new LoadBalancer(server).select("user-" + key));
+        }
+    }
+
+    @Test
+    public void testOverloadedHostIsSkippedForRoutingKey() {
+        LoadBalancer loadBalancer = new LoadBalancer(server());
+        int host = loadBalancer.select("user-1");
+
+        // Host of this key has many in-flight calls - key goes to other host till the load is reduced
+        for (int i = 0; i < 10; i++) {
+            loadBalancer.onStart(host);
+        }
+        assertEquals(1 - host, loadBalancer.select("user-1"));
+        for (int i = 0; i < 10; i++) {
+            loadBalancer.onCancel(host);
+        }
+        assertEquals(host, loadBalancer.select("user-1"));
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyNotFoundException;
+import io.reactivex.rxjava3.core.Observable;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestBatcherTest {
+
+    private Api api(int maxKeys, int maxDelayMs) {
+        Api api = new Api();
+        api.setName("getUser");
+        api.setBatchApi("getUsers");
+        api.setBatchKey("id");
+        api.setBatchParam("ids");
+        api.setBatchMaxKeys(maxKeys);
+        api.setBatchMaxDelayMs(maxDelayMs);
+        return api;
+    }
+
+    // Bulk api which gives a list of users for given ids (except for id "missing")
+    private Observable<Object> bulkCall(List<List<String>> calls, List<String> keys) {
+        calls.add(keys);
+        List<Map<String, Object>> users = new ArrayList<>();
+        keys.stream().filter(key -> !"missing".equals(key)).forEach(key -> {
+            Map<String, Object> user = new HashMap<>();
+            user.put("id", key);
+            user.put("name", "user_" + key);
+            users.add(user);
+        });
+        return Observable.just(users);
+    }
+
+    @Test
+    public void testOnlyCallsWithJustTheKeyAreBatched() {
+        RequestBatcher requestBatcher = new RequestBatcher("test", api(10, 5), keys -> Observable.empty());
+
+        RequestObject requestObject = new RequestObject();
+        requestObject.setPathParam(Collections.singletonMap("id", 1));
+        assertEquals("1", requestBatcher.getKey(requestObject));
+
+        requestObject = new RequestObject();
+        MultivaluedHashMap<String, Object> queryParam = new MultivaluedHashMap<>();
+        queryParam.add("id", "2");
+        requestObject.setQueryParam(queryParam);
+        assertEquals("2", requestBatcher.getKey(requestObject));
+
+        // Other params, headers or body can not be batched
+        requestObject = new RequestObject();
+        Map<String, Object> pathParam = new HashMap<>();
+        pathParam.put("id", 1);
+        pathParam.put("type", "admin");
+        requestObject.setPathParam(pathParam);
+        assertNull(requestBatcher.getKey(requestObject));
+
+        requestObject = new RequestObject();
+        requestObject.setPathParam(Collections.singletonMap("id", 1));
+        requestObject.setHeaders(Collections.singletonMap("X-Trace", "abc"));
+        assertNull(requestBatcher.getKey(requestObject));
+
+        // Default content type header is ignored
+        requestObject = new RequestObject();
+        requestObject.setPathParam(Collections.singletonMap("id", 1));
+        requestObject.setHeaders(Collections.singletonMap("Content-Type", "application/json"));
+        assertEquals("1", requestBatcher.getKey(requestObject));
+
+        requestObject = new RequestObject();
+        requestObject.setPathParam(Collections.singletonMap("id", 1));
+        requestObject.setBody("{}".getBytes());
+        assertNull(requestBatcher.getKey(requestObject));
+
+        assertNull(requestBatcher.getKey(new RequestObject()));
+    }
+
+    @Test
+    public void testCallsAreBatched() throws Exception {
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        RequestBatcher requestBatcher = new RequestBatcher("test", api(10, 20), keys -> bulkCall(calls, keys));
+
+        CompletableFuture<byte[]> first = requestBatcher.add("1");
+        CompletableFuture<byte[]> second = requestBatcher.add("2");
+        CompletableFuture<byte[]> duplicate = requestBatcher.add("1");
+        CompletableFuture<byte[]> missing = requestBatcher.add("missing");
+
+        Map<String, Object> user = JsonUtils.convertAsMap(new String(first.get(1, TimeUnit.SECONDS), StandardCharsets.UTF_8));
+        assertEquals("user_1", user.get("name"));
+        user = JsonUtils.convertAsMap(new String(second.get(1, TimeUnit.SECONDS), StandardCharsets.UTF_8));
+        assertEquals("user_2", user.get("name"));
+        assertTrue(first == duplicate);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> missing.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof EasyNotFoundException);
+
+        // One bulk call with each key once
+        assertEquals(1, calls.size());
+        assertEquals(3, calls.get(0).size());
+    }
+
+    @Test
+    public void testBatchIsSentWhenFull() throws Exception {
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        RequestBatcher requestBatcher = new RequestBatcher("test", api(2, 60_000), keys -> bulkCall(calls, keys));
+
+        CompletableFuture<byte[]> first = requestBatcher.add("1");
+        CompletableFuture<byte[]> second = requestBatcher.add("2");
+
+        // Max delay is very long, so calls complete only because batch is full
+        first.get(1, TimeUnit.SECONDS);
+        second.get(1, TimeUnit.SECONDS);
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    public void testBulkCallErrorFailsAllCalls() {
+        RuntimeException error = new RuntimeException("bulk api failed");
+        RequestBatcher requestBatcher = new RequestBatcher("test", api(10, 5), keys -> Observable.error(error));
+
+        CompletableFuture<byte[]> first = requestBatcher.add("1");
+        CompletableFuture<byte[]> second = requestBatcher.add("2");
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertEquals(error, e.getCause());
+        e = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        assertEquals(error, e.getCause());
+    }
+}
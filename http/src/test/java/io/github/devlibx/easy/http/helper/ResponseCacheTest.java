@@ -0,0 +1,176 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResponseCacheTest {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private Api api() {
+        Api api = new Api();
+        api.setName("getUser");
+        api.setPath("/users/${id}");
+        api.setCache(true);
+        return api;
+    }
+
+    private ResponseObject response(String body, String... headers) {
+        Map<String, String> headerMap = new HashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            headerMap.put(headers[i], headers[i + 1]);
+        }
+        return ResponseObject.builder().statusCode(200).success(true).body(body.getBytes()).headers(headerMap).build();
+    }
+
+    @Test
+    public void testResponseIsFreshForMaxAge() {
+        ResponseCache responseCache = new ResponseCache("test", api(), now::get);
+        responseCache.put("key", response("user", "cache-control", "public, max-age=60"));
+
+        ResponseCache.Entry entry = responseCache.get("key");
+        assertNotNull(entry);
+        assertEquals("user", new String(entry.getBody()));
+        assertTrue(entry.isFresh());
+
+        now.addAndGet(60_000);
+        assertFalse(entry.isFresh());
+        assertFalse(entry.isStaleWhileRevalidate());
+    }
+
+    @Test
+    public void testResponsesWhichAreNotCached() {
+        ResponseCache responseCache = new ResponseCache("test", api(), now::get);
+
+        responseCache.put("no-store", response("user", "cache-control", "no-store"));
+        assertNull(responseCache.get("no-store"));
+
+        // No freshness and nothing to revalidate with
+        responseCache.put("no-headers", response("user"));
+        assertNull(responseCache.get("no-headers"));
+
+        responseCache.put("vary", response("user", "cache-control", "max-age=60", "vary", "*"));
+        assertNull(responseCache.get("vary"));
+
+        ResponseObject created = response("user", "cache-control", "max-age=60");
+        created.setStatusCode(201);
+        responseCache.put("created", created);
+        assertNull(responseCache.get("created"));
+    }
+
+    @Test
+    public void testRevalidationWithETag() {
+        ResponseCache responseCache = new ResponseCache("test", api(), now::get);
+        responseCache.put("key", response("user", "cache-control", "no-cache", "etag", "\"v1\""));
+
+        // Kept only to be revalidated
+        ResponseCache.Entry entry = responseCache.get("key");
+        assertNotNull(entry);
+        assertFalse(entry.isFresh());
+        assertEquals("\"v1\"", entry.getEtag());
+
+        // 304 has no body - cached body is used, and it is fresh for max-age of 304
+        ResponseObject notModified = ResponseObject.builder().statusCode(304).success(true)
+                .headers(Collections.singletonMap("cache-control", "max-age=10")).build();
+        ResponseCache.Entry revalidated = responseCache.revalidated("key", entry, notModified);
+        assertEquals("user", new String(revalidated.getBody()));
+        assertEquals("\"v1\"", revalidated.getEtag());
+        assertTrue(revalidated.isFresh());
+        assertTrue(responseCache.get("key") == revalidated);
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() {
+        ResponseCache responseCache = new ResponseCache("test", api(), now::get);
+        responseCache.put("key", response("user", "cache-control", "max-age=1, stale-while-revalidate=5"));
+        ResponseCache.Entry entry = responseCache.get("key");
+
+        now.addAndGet(2_000);
+        assertFalse(entry.isFresh());
+        assertTrue(entry.isStaleWhileRevalidate());
+
+        // Only one caller revalidates
+        assertTrue(entry.tryStartRevalidation());
+        assertFalse(entry.tryStartRevalidation());
+        entry.endRevalidation();
+        assertTrue(entry.tryStartRevalidation());
+
+        now.addAndGet(5_000);
+        assertFalse(entry.isStaleWhileRevalidate());
+    }
+
+    @Test
+    public void testTtlOfApiOverridesCacheHeaders() {
+        Api api = api();
+        api.setCacheTtlMs(5_000);
+        ResponseCache responseCache = new ResponseCache("test", api, now::get);
+        responseCache.put("key", response("user", "cache-control", "no-cache"));
+
+        ResponseCache.Entry entry = responseCache.get("key");
+        assertTrue(entry.isFresh());
+        now.addAndGet(5_000);
+        assertFalse(entry.isFresh());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResponsesAreRemovedOverMaxBytes() {
+        Api api = api();
+        api.setCacheMaxBytes(10);
+        ResponseCache responseCache = new ResponseCache("test", api, now::get);
+
+        responseCache.put("a", response("aaaa", "cache-control", "max-age=60"));
+        responseCache.put("b", response("bbbb", "cache-control", "max-age=60"));
+        responseCache.get("a");
+        responseCache.put("c", response("cccc", "cache-control", "max-age=60"));
+
+        assertNotNull(responseCache.get("a"));
+        assertNull(responseCache.get("b"));
+        assertNotNull(responseCache.get("c"));
+        assertEquals(8, responseCache.getBytes());
+
+        // Response bigger than cache is not cached
+        responseCache.put("big", response("12345678901", "cache-control", "max-age=60"));
+        assertNull(responseCache.get("big"));
+        assertEquals(8, responseCache.getBytes());
+    }
+
+    @Test
+    public void testKeyHasPathQueryAndKeyHeaders() {
+        Api api = api();
+        api.setCacheKeyHeaders(Collections.singletonList("Accept-Language"));
+        ResponseCache responseCache = new ResponseCache("test", api, now::get);
+
+        RequestObject first = new RequestObject();
+        first.setPathParam(Collections.singletonMap("id", 1));
+        first.setHeaders(Collections.singletonMap("accept-language", "en"));
+        RequestObject second = new RequestObject();
+        second.setPathParam(Collections.singletonMap("id", 1));
+        second.setHeaders(Collections.singletonMap("Accept-Language", "en"));
+        assertEquals(responseCache.key(api, first), responseCache.key(api, second));
+
+        second.setHeaders(Collections.singletonMap("Accept-Language", "fr"));
+        assertNotEquals(responseCache.key(api, first), responseCache.key(api, second));
+
+        RequestObject withQuery = new RequestObject();
+        withQuery.setPathParam(Collections.singletonMap("id", 1));
+        withQuery.setHeaders(Collections.singletonMap("accept-language", "en"));
+        MultivaluedHashMap<String, Object> queryParam = new MultivaluedHashMap<>();
+        queryParam.add("fields", "name");
+        withQuery.setQueryParam(queryParam);
+        assertNotEquals(responseCache.key(api, first), responseCache.key(api, withQuery));
+    }
+}
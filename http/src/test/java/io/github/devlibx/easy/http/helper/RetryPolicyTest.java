@@ -0,0 +1,89 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
+import io.github.devlibx.easy.resilience.exception.CircuitOpenException;
+import io.github.devlibx.easy.resilience.exception.RequestTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RetryPolicyTest {
+
+    private EasyHttpRequestException error(int statusCode, Exception exception) {
+        ResponseObject responseObject = new ResponseObject();
+        responseObject.setStatusCode(statusCode);
+        responseObject.setException(exception);
+        return new EasyHttpRequestException(responseObject);
+    }
+
+    @Test
+    public void testRetryableErrors() {
+        Api api = new Api();
+        api.setMaxAttempts(3);
+        RetryPolicy retryPolicy = new RetryPolicy(api);
+
+        assertTrue(retryPolicy.isRetryable(error(503, null)));
+        assertFalse(retryPolicy.isRetryable(error(500, null)));
+        assertFalse(retryPolicy.isRetryable(error(400, null)));
+
+        // Exception is matched in the cause chain
+        assertTrue(retryPolicy.isRetryable(error(500, new ConnectException("connection refused"))));
+        assertTrue(retryPolicy.isRetryable(new RuntimeException(new ConnectException("connection refused"))));
+        assertFalse(retryPolicy.isRetryable(new RequestTimeoutException("timeout", null)));
+
+        // Open circuit is never retried
+        assertFalse(retryPolicy.isRetryable(new CircuitOpenException("open", error(503, null))));
+
+        // Exception can be given with simple class name
+        api.setRetryableExceptions(Collections.singletonList("RequestTimeoutException"));
+        assertTrue(new RetryPolicy(api).isRetryable(new RequestTimeoutException("timeout", null)));
+    }
+
+    @Test
+    public void testRetryBudget() {
+        Api api = new Api();
+        api.setMaxAttempts(3);
+        api.setRetryBudgetPercent(10);
+        RetryPolicy retryPolicy = new RetryPolicy(api);
+
+        // 10 calls give budget for 1 retry
+        assertFalse(retryPolicy.tryAcquireRetry());
+        for (int i = 0; i < 10; i++) {
+            retryPolicy.onCall();
+        }
+        assertTrue(retryPolicy.tryAcquireRetry());
+        assertFalse(retryPolicy.tryAcquireRetry());
+
+        // Budget is capped - a long healthy period does not allow a retry storm later
+        for (int i = 0; i < 10000; i++) {
+            retryPolicy.onCall();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertTrue(retryPolicy.tryAcquireRetry());
+        }
+        assertFalse(retryPolicy.tryAcquireRetry());
+    }
+
+    @Test
+    public void testBackoff() {
+        Api api = new Api();
+        api.setMaxAttempts(10);
+        api.setRetryBackoffMs(50);
+        api.setRetryMaxBackoffMs(300);
+        RetryPolicy retryPolicy = new RetryPolicy(api);
+        for (int i = 0; i < 100; i++) {
+            long first = retryPolicy.getBackoffMs(1);
+            assertTrue(first >= 0 && first <= 50, "backoff=" + first);
+            long third = retryPolicy.getBackoffMs(3);
+            assertTrue(third >= 0 && third <= 200, "backoff=" + third);
+            long last = retryPolicy.getBackoffMs(9);
+            assertTrue(last >= 0 && last <= 300, "backoff=" + last);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.devlibx.easy.http.helper;
+
+import io.gitbub.devlibx.easy.helper.string.StringHelper;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UriTemplateTest {
+    private final StringHelper stringHelper = new StringHelper();
+
+    @Test
+    public void testPathParamsAreReplaced() {
+        UriTemplate template = UriTemplate.compile("/users/${id}/posts/${postId}");
+        assertEquals(Arrays.asList("id", "postId"), template.getParams());
+
+        Map<String, Object> pathParams = new HashMap<>();
+        pathParams.put("id", 1);
+        pathParams.put("postId", "abc");
+        assertEquals("/users/1/posts/abc", template.expand(pathParams, null, stringHelper));
+
+        // Missing param is kept as it is (encoded)
+        pathParams.remove("postId");
+        assertEquals("/users/1/posts/$%7BpostId%7D", template.expand(pathParams, null, stringHelper));
+    }
+
+    @Test
+    public void testPathIsNormalized() {
+        assertEquals("/", UriTemplate.compile(null).expand(null, null, stringHelper));
+        assertEquals("/", UriTemplate.compile("").expand(null, null, stringHelper));
+        assertEquals("/delay", UriTemplate.compile("delay").expand(null, null, stringHelper));
+        assertEquals("/a/$%7Bid%7D", UriTemplate.compile("/a/$${id}").expand(null, null, stringHelper));
+    }
+
+    @Test
+    public void testValuesAreEncoded() {
+        Map<String, Object> pathParams = new HashMap<>();
+        pathParams.put("name", "a b/ç?#");
+
+        MultivaluedMap<String, Object> queryParams = new MultivaluedHashMap<>();
+        queryParams.add("q", "x&y=z");
+        queryParams.add("q", "€");
+        queryParams.put("empty", Collections.singletonList(null));
+
+        URI uri = UriTemplate.compile("/search/${name}").toUri("http://localhost:80", pathParams, queryParams, stringHelper);
+        assertEquals("http://localhost:80/search/a%20b/%C3%A7%3F%23?q=x%26y%3Dz&q=%E2%82%AC&empty", uri.toString());
+        assertEquals("/search/a b/ç?#", uri.getPath());
+        assertEquals("q=x&y=z&q=€&empty", uri.getQuery());
+    }
+
+    @Test
+    public void testLiteralTextOfPathIsKept() {
+        Map<String, Object> pathParams = new HashMap<>();
+        pathParams.put("id", "x y");
+
+        // Existing escapes in path are not encoded again
+        assertEquals("/a%20b/x%20y", UriTemplate.compile("/a%20b/${id}").expand(pathParams, null, stringHelper));
+        assertEquals("/a%25b%252", UriTemplate.compile("/a%b%2").expand(null, null, stringHelper));
+
+        // Query in path is kept, and query params are added to it
+        MultivaluedMap<String, Object> queryParams = new MultivaluedHashMap<>();
+        queryParams.add("q", "1");
+        assertEquals("/users?x=1&q=1", UriTemplate.compile("/users?x=1").expand(null, queryParams, stringHelper));
+
+        // Param in query of path is encoded as a query value
+        pathParams.put("id", "a&b");
+        assertEquals("/users?id=a%26b", UriTemplate.compile("/users?id=${id}").expand(pathParams, null, stringHelper));
+    }
+}
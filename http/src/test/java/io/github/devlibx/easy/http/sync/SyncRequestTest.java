@@ -6,15 +6,22 @@ import io.gitbub.devlibx.easy.helper.ParallelThread;
 import io.gitbub.devlibx.easy.helper.json.JsonUtils;
 import io.gitbub.devlibx.easy.helper.map.StringObjectMap;
 import io.github.devlibx.easy.http.BaseTestCase;
+import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyHttpRequestException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyRequestTimeOutException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceOverflowException;
 import io.github.devlibx.easy.http.exception.EasyHttpExceptions.EasyResilienceRequestTimeoutException;
+import io.github.devlibx.easy.http.registry.Endpoint;
 import io.github.devlibx.easy.http.util.Call;
+import io.github.devlibx.easy.http.util.CallResults;
 import io.github.devlibx.easy.http.util.EasyHttp;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.junit.jupiter.api.Test;
 
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -25,6 +32,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("rawtypes")
@@ -36,14 +44,37 @@ public class SyncRequestTest extends BaseTestCase {
      */
     @Test
     public void testSimpleHttpRequest() {
-        Map resultSync = EasyHttp.callSync(
-                Call.builder(Map.class)
-                        .withServerAndApi("testServer", "delay_timeout_5000")
-                        .addQueryParam("delay", 1000)
-                        .build()
-        );
+        Call<Map> call = Call.builder(Map.class)
+                .withServerAndApi("testServer", "delay_timeout_5000")
+                .addQueryParam("delay", 1000)
+                .build();
+        Map resultSync = EasyHttp.callSync(call);
         assertEquals("1000", resultSync.get("delay"));
         assertEquals("some data", resultSync.get("data"));
+
+        // Call is not changed - it can be reused after EasyHttp is setup again
+        assertNull(call.getEndpoint());
+    }
+
+    /**
+     * Test a simple http call using a pre-resolved endpoint (with success)
+     */
+    @Test
+    public void testSimpleHttpRequest_WithEndpoint() {
+        Endpoint endpoint = EasyHttp.getEndpoint("testServer", "delay_timeout_5000");
+        assertNotNull(endpoint);
+        assertEquals("testServer-delay_timeout_5000", endpoint.getKey());
+
+        for (int i = 0; i < 2; i++) {
+            Map resultSync = EasyHttp.callSync(
+                    Call.builder(Map.class)
+                            .withEndpoint(endpoint)
+                            .addQueryParam("delay", 10)
+                            .build()
+            );
+            assertEquals("10", resultSync.get("delay"));
+            assertEquals("some data", resultSync.get("data"));
+        }
     }
 
     /**
@@ -174,6 +205,137 @@ public class SyncRequestTest extends BaseTestCase {
 
     }
 
+    /**
+     * Identical calls share one request - api allows only 2 calls (concurrency=1, queueSize=1) but all calls succeed
+     */
+    @Test
+    public void testCoalescedRequests() throws InterruptedException {
+        int count = 6;
+        AtomicInteger success = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            new Thread(() -> {
+                try {
+                    Map result = EasyHttp.callSync(
+                            Call.builder(Map.class)
+                                    .withServerAndApi("testServer", "delay_coalesce")
+                                    .addQueryParam("delay", 500)
+                                    .build()
+                    );
+                    if ("500".equals(result.get("delay"))) {
+                        success.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    log.error("Coalesced call failed", e);
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(count, success.get());
+    }
+
+    /**
+     * All calls are made in parallel - a slow call does not delay result of the others and times out at the deadline
+     */
+    @Test
+    public void testCallAll() {
+        Map<String, Call<?>> calls = new HashMap<>();
+        calls.put("fast1", Call.builder(Map.class).withServerAndApi("testServer", "delay_timeout_5000").addQueryParam("delay", 100).build());
+        calls.put("fast2", Call.builder(Map.class).withServerAndApi("testServer", "delay_timeout_1000").addQueryParam("delay", 100).build());
+        calls.put("slow", Call.builder(Map.class).withServerAndApi("testServer", "delay_timeout_5000").addQueryParam("delay", 3000).build());
+
+        long start = System.currentTimeMillis();
+        CallResults<String> results = EasyHttp.callAll(calls, 1000);
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(results.isSuccess("fast1"));
+        assertEquals("100", results.<Map>get("fast1").get("delay"));
+        assertTrue(results.isSuccess("fast2"));
+        assertFalse(results.isSuccess("slow"));
+
+        // Slow call gets callAll timeout as its deadline - so socket read of the call may also time out at the deadline
+        Throwable error = results.getError("slow");
+        assertTrue(error instanceof EasyResilienceRequestTimeoutException || error instanceof EasyRequestTimeOutException);
+    }
+
+    /**
+     * Calls which are not complete by callAll timeout are aborted - they do not hold bulkhead of the api after callAll
+     */
+    @Test
+    public void testCallAllAbortsSlowCalls() {
+        Map<String, Call<?>> calls = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            calls.put("slow" + i, Call.builder(Map.class).withServerAndApi("testServer", "delay_timeout_5000").addQueryParam("delay", 3000).build());
+        }
+        CallResults<String> results = EasyHttp.callAll(calls, 500);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(results.isSuccess("slow" + i));
+        }
+
+        // Api has concurrency=3 - this call would wait for the slow calls if they were still running
+        long start = System.currentTimeMillis();
+        Map result = EasyHttp.callSync(Call.builder(Map.class).withServerAndApi("testServer", "delay_timeout_5000").addQueryParam("delay", 10).build());
+        assertEquals("10", result.get("delay"));
+        assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    /**
+     * Call deadline is shorter than api timeout - call must fail at the deadline
+     */
+    @Test
+    public void testCallDeadline() {
+        long start = System.currentTimeMillis();
+        boolean gotTimeout = false;
+        try {
+            EasyHttp.callSync(
+                    Call.builder(Map.class)
+                            .withServerAndApi("testServer", "delay_timeout_5000")
+                            .addQueryParam("delay", 2000)
+                            .withDeadline(300)
+                            .build()
+            );
+        } catch (EasyResilienceRequestTimeoutException | EasyRequestTimeOutException e) {
+            gotTimeout = true;
+        }
+        assertTrue(gotTimeout);
+        assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    /**
+     * Only errors of the connection to the host (connect or read) are host failures
+     */
+    @Test
+    public void testOnlyConnectionErrorsAreHostFailures() {
+        assertTrue(SyncRequestProcessor.isHostFailure(new ConnectException("connection refused")));
+        assertTrue(SyncRequestProcessor.isHostFailure(new SocketTimeoutException("read timed out")));
+
+        // No free connection in our own pool (or a error in our code) says nothing about the host
+        assertFalse(SyncRequestProcessor.isHostFailure(new ConnectionPoolTimeoutException("timeout waiting for connection")));
+        assertFalse(SyncRequestProcessor.isHostFailure(new IllegalStateException("connection pool shut down")));
+    }
+
+    /**
+     * A 200 response which can not be parsed from the response stream is a parse error (not a error of the http call)
+     */
+    @Test
+    public void testStreamingResponseParseError() {
+        Exception error = null;
+        try {
+            EasyHttp.callSync(
+                    Call.builder(Integer.class)
+                            .withServerAndApi("testServer", "delay_timeout_5000")
+                            .addQueryParam("delay", 1)
+                            .withStreamingResponse()
+                            .build()
+            );
+        } catch (Exception e) {
+            error = e;
+        }
+        assertNotNull(error);
+        assertFalse(error instanceof EasyHttpRequestException);
+    }
+
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Payload {
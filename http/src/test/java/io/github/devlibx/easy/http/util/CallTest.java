@@ -3,11 +3,13 @@ package io.github.devlibx.easy.http.util;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("rawtypes")
@@ -239,4 +241,43 @@ public class CallTest {
         }
         assertTrue(gotError);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Streaming response builder parses response class directly from stream")
+    public void streamingResponseIsParsedFromStream() throws Exception {
+        // Not set by default
+        Call<Map> call = Call.builder(Map.class)
+                .withServerAndApi("server", "api")
+                .build();
+        assertNull(call.getResponseStreamBuilder());
+
+        call = Call.builder(Map.class)
+                .withServerAndApi("server", "api")
+                .withStreamingResponse()
+                .build();
+        Map response = call.getResponseStreamBuilder().apply(new ByteArrayInputStream("{\"a\": \"b\"}".getBytes()));
+        assertEquals("b", response.get("a"));
+
+        Call<String> stringCall = Call.builder(String.class)
+                .withServerAndApi("server", "api")
+                .withStreamingResponse()
+                .build();
+        assertEquals("{\"a\": \"b\"}", stringCall.getResponseStreamBuilder().apply(new ByteArrayInputStream("{\"a\": \"b\"}".getBytes())));
+    }
+
+    @Test
+    @DisplayName("withDeadline gives a copy of call with new deadline - original call is not changed")
+    public void withDeadlineGivesCopyOfCall() {
+        Call<Map> call = Call.builder(Map.class)
+                .withServerAndApi("server", "api")
+                .addHeader("a", "b")
+                .withDeadline(1000)
+                .build();
+        Call<Map> copy = call.withDeadline(200);
+        assertEquals(200, copy.getDeadline());
+        assertEquals(1000, call.getDeadline());
+        assertEquals("server", copy.getServer());
+        assertEquals("api", copy.getApi());
+        assertEquals("b", copy.getHeaders().get("a"));
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.devlibx.easy.http.util;
+
+import io.github.devlibx.easy.http.BaseTestCase;
+import io.github.devlibx.easy.http.IRequestProcessor;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.registry.Endpoint;
+import io.reactivex.rxjava3.core.Observable;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures bytes allocated per "callSync" of a sync api - direct call (plain method calls) vs the same call made with
+ * observables ("internalCall(...).blockingFirst()"). Request processor gives the response from memory, so only the
+ * call pipeline (resilience processor and the code around it) is measured. Allocations of all threads are counted,
+ * because request is made in a thread of the bulkhead.
+ */
+@Slf4j
+@SuppressWarnings("rawtypes")
+public class DirectCallAllocationTest extends BaseTestCase {
+    private static final int WARM_UP_CALLS = 20000;
+    private static final int CALLS = 100000;
+
+    /**
+     * This test case is added to measure allocations - run it by hand
+     */
+    @Disabled
+    @Test
+    @DisplayName("Allocation per sync call - direct call vs observable call")
+    public void allocationPerCall() {
+        EasyHttpObject easyHttp = new EasyHttpObject();
+        easyHttp.setup(getConfig());
+        Endpoint endpoint = easyHttp.getEndpoint("testServer", "delay_timeout_5000")
+                .toBuilder()
+                .requestProcessor(new InMemoryRequestProcessor())
+                .build();
+        Call<Map> call = Call.builder(Map.class)
+                .withEndpoint(endpoint)
+                .addQueryParam("delay", 0)
+                .build();
+
+        // Run both a few times, so we do not measure class loading and JIT
+        for (int i = 0; i < 3; i++) {
+            long direct = bytesPerCall(c -> assertTrue(easyHttp.callSync(c).isEmpty()), call);
+            long observable = bytesPerCall(c -> assertTrue(easyHttp.internalCall(c, endpoint).blockingFirst().isEmpty()), call);
+            log.info("Bytes allocated per call: direct={}, observable={}, saved={}", direct, observable, observable - direct);
+        }
+    }
+
+    private static long bytesPerCall(Consumer<Call<Map>> consumer, Call<Map> call) {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            consumer.accept(call);
+        }
+        long start = allocatedBytes();
+        for (int i = 0; i < CALLS; i++) {
+            consumer.accept(call);
+        }
+        return (allocatedBytes() - start) / CALLS;
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    /**
+     * Gives a "{}" response without a http call - observable is built the same way as in sync request processor
+     */
+    private static class InMemoryRequestProcessor implements IRequestProcessor {
+        private static final byte[] BODY = "{}".getBytes(StandardCharsets.UTF_8);
+
+        @Override
+        public Observable<ResponseObject> process(RequestObject requestObject) {
+            return Observable.create(observableEmitter -> {
+                observableEmitter.onNext(processBlocking(requestObject));
+                observableEmitter.onComplete();
+            });
+        }
+
+        @Override
+        public ResponseObject processBlocking(RequestObject requestObject) {
+            requestObject.preProcessHeaders();
+            ResponseObject responseObject = new ResponseObject();
+            responseObject.setBody(BODY);
+            responseObject.setStatusCode(200);
+            responseObject.setSuccess(true);
+            return responseObject;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.devlibx.easy.http.util;
+
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.helper.HedgePolicy;
+import io.reactivex.rxjava3.core.Observable;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HedgedCallTest {
+
+    @Test
+    public void testHedgeResultIsUsedIfPrimaryFails() {
+        String result = EasyHttpObject.hedgedCall(hedgePolicy(), new RequestObject(), attempts(
+                Observable.timer(100, TimeUnit.MILLISECONDS).flatMap(ignored -> Observable.error(new RuntimeException("primary"))),
+                Observable.timer(200, TimeUnit.MILLISECONDS).map(ignored -> "hedge")
+        )).blockingFirst();
+        assertEquals("hedge", result);
+    }
+
+    @Test
+    public void testPrimaryResultIsUsedIfHedgeFails() {
+        String result = EasyHttpObject.hedgedCall(hedgePolicy(), new RequestObject(), attempts(
+                Observable.timer(200, TimeUnit.MILLISECONDS).map(ignored -> "primary"),
+                Observable.error(new RuntimeException("hedge"))
+        )).blockingFirst();
+        assertEquals("primary", result);
+    }
+
+    @Test
+    public void testPrimaryErrorIfBothFail() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> EasyHttpObject.hedgedCall(hedgePolicy(), new RequestObject(), attempts(
+                Observable.timer(100, TimeUnit.MILLISECONDS).flatMap(ignored -> Observable.<String>error(new RuntimeException("primary"))),
+                Observable.error(new RuntimeException("hedge"))
+        )).blockingFirst());
+        assertEquals("primary", e.getMessage());
+    }
+
+    @Test
+    public void testPrimaryErrorIfHedgeIsNotSent() {
+        AtomicInteger attempts = new AtomicInteger();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> EasyHttpObject.hedgedCall(hedgePolicy(), new RequestObject(), request -> {
+            attempts.incrementAndGet();
+            return Observable.<String>error(new RuntimeException("primary"));
+        }).blockingFirst());
+        assertEquals("primary", e.getMessage());
+        assertEquals(1, attempts.get());
+    }
+
+    private static HedgePolicy hedgePolicy() {
+        Api api = new Api();
+        api.setHedgeDelayMs(20);
+        api.setHedgeBudgetPercent(100);
+        return new HedgePolicy(api);
+    }
+
+    private static Function<RequestObject, Observable<String>> attempts(Observable<String> primary, Observable<String> hedge) {
+        AtomicInteger count = new AtomicInteger();
+        return request -> count.getAndIncrement() == 0 ? primary : hedge;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.devlibx.easy.http.util;
+
+import io.gitbub.devlibx.easy.helper.json.JsonUtils;
+import io.github.devlibx.easy.http.RequestObject;
+import io.github.devlibx.easy.http.ResponseObject;
+import io.github.devlibx.easy.http.config.Api;
+import io.github.devlibx.easy.http.config.Server;
+import io.github.devlibx.easy.http.registry.Endpoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WarmUpRequestProcessorTest {
+
+    private RequestObject requestObject() {
+        Server server = new Server();
+        server.setName("testServer");
+        server.setHost("localhost");
+        Api api = new Api();
+        api.setName("getUser");
+        api.setServer("testServer");
+        api.setPath("/users/${id}");
+
+        RequestObject requestObject = new RequestObject();
+        requestObject.setEndpoint(Endpoint.builder().serverName("testServer").apiName("getUser").server(server).api(api).build());
+        return requestObject;
+    }
+
+    @Test
+    public void testLoopbackResponseIsGivenWithoutHttpCall() {
+        RequestObject requestObject = requestObject();
+        ResponseObject responseObject = new WarmUpRequestProcessor().process(requestObject).blockingFirst();
+        assertEquals(200, responseObject.getStatusCode());
+        assertEquals("{}", new String(responseObject.getBody()));
+        assertEquals("application/json", requestObject.getHeaders().get("Content-Type"));
+    }
+
+    @Test
+    public void testStreamingResponseIsDecoded() {
+        RequestObject requestObject = requestObject();
+        requestObject.setResponseStreamBuilder(inputStream -> JsonUtils.readObject(inputStream, Map.class));
+        ResponseObject responseObject = new WarmUpRequestProcessor().process(requestObject).blockingFirst();
+        assertTrue(((Map<?, ?>) responseObject.getDecodedBody()).isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.devlibx.easy.resilience;
+
+import io.github.devlibx.easy.resilience.exception.RequestTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * A AIMD (additive increase / multiplicative decrease) concurrency limit.
+ * <p>
+ * Every completed call is a sample. If a call timed out or took more than the latency threshold then limit is
+ * reduced (limit * backoffRatio), otherwise if we are using at least half of the limit then limit is increased by 1.
+ * Limit is always between minLimit and maxLimit.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimit {
+    private final String id;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger limit;
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    public AdaptiveConcurrencyLimit(String id, int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.id = id;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit)));
+    }
+
+    /**
+     * @return current limit
+     */
+    public int getLimit() {
+        return limit.get();
+    }
+
+    /**
+     * Add a listener to be called with the new limit when limit is changed
+     */
+    public void addListener(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Record a completed call
+     *
+     * @param latencyNanos time taken by call
+     * @param inFlight     no of calls running when this call completed
+     * @param throwable    error of this call (null if call was successful)
+     */
+    public void onSample(long latencyNanos, int inFlight, Throwable throwable) {
+        int current = limit.get();
+        int next;
+        if (isTimeout(throwable) || latencyNanos > latencyThresholdNanos) {
+            next = Math.max(minLimit, Math.min(current - 1, (int) (current * backoffRatio)));
+        } else if (throwable == null && inFlight * 2 >= current) {
+            next = Math.min(maxLimit, current + 1);
+        } else {
+            return;
+        }
+
+        // Only one thread updates the limit for a sample (others will retry with next sample)
+        if (next != current && limit.compareAndSet(current, next)) {
+            log.debug("concurrency limit changed: id={}, from={}, to={}", id, current, next);
+            listeners.forEach(listener -> listener.accept(next));
+        }
+    }
+
+    private static boolean isTimeout(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof InterruptedIOException || t instanceof RequestTimeoutException) {
+                return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+}
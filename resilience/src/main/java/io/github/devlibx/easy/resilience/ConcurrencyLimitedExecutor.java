@@ -0,0 +1,96 @@
+package io.github.devlibx.easy.resilience;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs at most "limit" tasks at once in the given executor - other tasks wait in a queue (in submit order) and run
+ * when a running task is complete.
+ * <p>
+ * It is used to run calls of a api in a shared executor (or in virtual threads) with no more running calls than the
+ * concurrency of the api (which is also the size of the connection pool of the api). Queue is not bounded here - no of
+ * waiting tasks is limited by the bulkhead permits of the api.
+ */
+public class ConcurrencyLimitedExecutor implements Executor {
+    private final Executor executor;
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    private int limit;
+    private int running;
+
+    public ConcurrencyLimitedExecutor(Executor executor, int limit) {
+        this.executor = executor;
+        this.limit = Math.max(1, limit);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (this) {
+            if (running >= limit) {
+                queue.add(task);
+                return;
+            }
+            running++;
+        }
+        run(task);
+    }
+
+    /**
+     * Change the limit - waiting tasks are started right away if new limit is higher
+     */
+    public void setLimit(int limit) {
+        while (true) {
+            Runnable next;
+            synchronized (this) {
+                this.limit = Math.max(1, limit);
+                if (running >= this.limit || queue.isEmpty()) {
+                    return;
+                }
+                next = queue.poll();
+                running++;
+            }
+            run(next);
+        }
+    }
+
+    /**
+     * @return no of tasks running now
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    /**
+     * @return no of tasks waiting to run
+     */
+    public synchronized int getWaiting() {
+        return queue.size();
+    }
+
+    private void run(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    onComplete();
+                }
+            });
+        } catch (RuntimeException e) {
+            onComplete();
+            throw e;
+        }
+    }
+
+    private void onComplete() {
+        Runnable next;
+        synchronized (this) {
+            next = running <= limit ? queue.poll() : null;
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+        run(next);
+    }
+}
@@ -26,12 +26,90 @@ public interface IResilienceManager {
         private int queueSize = 100;
         private boolean useSemaphore = false;
 
+        /**
+         * If true then calls run in a executor shared by all apis (instead of a thread pool per api). At most
+         * "concurrency" calls of a api run at once, and up to "queueSize" calls wait for their turn. Not used if
+         * useSemaphore is true.
+         */
+        private boolean useSharedExecutor = false;
+
+        /**
+         * If true then each call runs in a virtual thread (if runtime supports virtual threads, otherwise in shared
+         * executor). At most "concurrency" calls of a api run at once, and up to "queueSize" calls wait for their
+         * turn. Not used if useSemaphore is true.
+         */
+        private boolean useVirtualThreads = false;
+
+        /**
+         * If true then concurrency is the initial limit, and limit is changed (AIMD) using latency and timeouts of
+         * completed calls. A thread pool can not be resized, so sync calls with adaptive concurrency always run in the
+         * shared executor (same as useSharedExecutor = true) with permits in place of a thread pool of their own.
+         */
+        private boolean adaptiveConcurrency = false;
+
+        /**
+         * Max limit for adaptive concurrency (default = 10 * concurrency if not set)
+         */
+        private int maxConcurrency = 0;
+
+        /**
+         * Circuit breaker window - "COUNT_BASED" (last N calls) or "TIME_BASED" (calls of last N seconds)
+         */
+        private String circuitBreakerWindowType = "COUNT_BASED";
+
+        /**
+         * Size of circuit breaker window (no of calls, or no of seconds for time based window)
+         */
+        private int circuitBreakerWindowSize = 100;
+
+        /**
+         * Min calls in window before circuit breaker computes failure and slow call rates
+         */
+        private int circuitBreakerMinimumCalls = 100;
+
+        /**
+         * Circuit is opened if this percentage of calls fail
+         */
+        private int circuitBreakerFailureRateThreshold = 50;
+
+        /**
+         * Circuit is opened if this percentage of calls are slower than slow call duration
+         */
+        private int circuitBreakerSlowCallRateThreshold = 100;
+
+        /**
+         * A call which takes more than this time is a slow call (0 = 60 sec i.e. slow calls are not tracked)
+         */
+        private int circuitBreakerSlowCallDurationMs = 0;
+
+        /**
+         * No of calls allowed in half open state to check if circuit can be closed
+         */
+        private int circuitBreakerHalfOpenCalls = 10;
+
+        /**
+         * Time for which circuit stays open before calls are allowed in half open state
+         */
+        private int circuitBreakerOpenStateWaitMs = 100;
+
         public static ResilienceCallConfigBuilder withDefaults() {
             return ResilienceCallConfig.builder()
                     .queueSize(100)
                     .timeout(1000)
                     .concurrency(10)
-                    .useSemaphore(false);
+                    .useSemaphore(false)
+                    .useSharedExecutor(false)
+                    .useVirtualThreads(false)
+                    .adaptiveConcurrency(false)
+                    .maxConcurrency(0)
+                    .circuitBreakerWindowType("COUNT_BASED")
+                    .circuitBreakerWindowSize(100)
+                    .circuitBreakerMinimumCalls(100)
+                    .circuitBreakerFailureRateThreshold(50)
+                    .circuitBreakerSlowCallRateThreshold(100)
+                    .circuitBreakerSlowCallDurationMs(0)
+                    .circuitBreakerHalfOpenCalls(10)
+                    .circuitBreakerOpenStateWaitMs(100);
         }
 
         public static class ResilienceCallConfigBuilder {
@@ -40,6 +118,18 @@ public interface IResilienceManager {
             private int timeout;
             private int queueSize;
             private boolean useSemaphore;
+            private boolean useSharedExecutor;
+            private boolean useVirtualThreads;
+            private boolean adaptiveConcurrency;
+            private int maxConcurrency;
+            private String circuitBreakerWindowType;
+            private int circuitBreakerWindowSize;
+            private int circuitBreakerMinimumCalls;
+            private int circuitBreakerFailureRateThreshold;
+            private int circuitBreakerSlowCallRateThreshold;
+            private int circuitBreakerSlowCallDurationMs;
+            private int circuitBreakerHalfOpenCalls;
+            private int circuitBreakerOpenStateWaitMs;
 
             ResilienceCallConfigBuilder() {
             }
@@ -69,12 +159,72 @@ public interface IResilienceManager {
                 return this;
             }
 
+            public ResilienceCallConfig.ResilienceCallConfigBuilder useSharedExecutor(boolean useSharedExecutor) {
+                this.useSharedExecutor = useSharedExecutor;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder useVirtualThreads(boolean useVirtualThreads) {
+                this.useVirtualThreads = useVirtualThreads;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder adaptiveConcurrency(boolean adaptiveConcurrency) {
+                this.adaptiveConcurrency = adaptiveConcurrency;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder maxConcurrency(int maxConcurrency) {
+                this.maxConcurrency = maxConcurrency;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerWindowType(String circuitBreakerWindowType) {
+                this.circuitBreakerWindowType = circuitBreakerWindowType;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerWindowSize(int circuitBreakerWindowSize) {
+                this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerMinimumCalls(int circuitBreakerMinimumCalls) {
+                this.circuitBreakerMinimumCalls = circuitBreakerMinimumCalls;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerFailureRateThreshold(int circuitBreakerFailureRateThreshold) {
+                this.circuitBreakerFailureRateThreshold = circuitBreakerFailureRateThreshold;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerSlowCallRateThreshold(int circuitBreakerSlowCallRateThreshold) {
+                this.circuitBreakerSlowCallRateThreshold = circuitBreakerSlowCallRateThreshold;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerSlowCallDurationMs(int circuitBreakerSlowCallDurationMs) {
+                this.circuitBreakerSlowCallDurationMs = circuitBreakerSlowCallDurationMs;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerHalfOpenCalls(int circuitBreakerHalfOpenCalls) {
+                this.circuitBreakerHalfOpenCalls = circuitBreakerHalfOpenCalls;
+                return this;
+            }
+
+            public ResilienceCallConfig.ResilienceCallConfigBuilder circuitBreakerOpenStateWaitMs(int circuitBreakerOpenStateWaitMs) {
+                this.circuitBreakerOpenStateWaitMs = circuitBreakerOpenStateWaitMs;
+                return this;
+            }
+
             public ResilienceCallConfig build() {
-                return new ResilienceCallConfig(this.id, this.concurrency, this.timeout, this.queueSize, this.useSemaphore);
+                return new ResilienceCallConfig(this.id, this.concurrency, this.timeout, this.queueSize, this.useSemaphore, this.useSharedExecutor, this.useVirtualThreads, this.adaptiveConcurrency, this.maxConcurrency, this.circuitBreakerWindowType, this.circuitBreakerWindowSize, this.circuitBreakerMinimumCalls, this.circuitBreakerFailureRateThreshold, this.circuitBreakerSlowCallRateThreshold, this.circuitBreakerSlowCallDurationMs, this.circuitBreakerHalfOpenCalls, this.circuitBreakerOpenStateWaitMs);
             }
 
             public String toString() {
-                return "ResilienceCallConfig.ResilienceCallConfigBuilder(id=" + this.id + ", concurrency=" + this.concurrency + ", timeout=" + this.timeout + ", queueSize=" + this.queueSize + ", useSemaphore=" + this.useSemaphore + ")";
+                return "ResilienceCallConfig.ResilienceCallConfigBuilder(id=" + this.id + ", concurrency=" + this.concurrency + ", timeout=" + this.timeout + ", queueSize=" + this.queueSize + ", useSemaphore=" + this.useSemaphore + ", useSharedExecutor=" + this.useSharedExecutor + ", useVirtualThreads=" + this.useVirtualThreads + ", adaptiveConcurrency=" + this.adaptiveConcurrency + ", maxConcurrency=" + this.maxConcurrency + ", circuitBreakerWindowType=" + this.circuitBreakerWindowType + ", circuitBreakerWindowSize=" + this.circuitBreakerWindowSize + ", circuitBreakerMinimumCalls=" + this.circuitBreakerMinimumCalls + ", circuitBreakerFailureRateThreshold=" + this.circuitBreakerFailureRateThreshold + ", circuitBreakerSlowCallRateThreshold=" + this.circuitBreakerSlowCallRateThreshold + ", circuitBreakerSlowCallDurationMs=" + this.circuitBreakerSlowCallDurationMs + ", circuitBreakerHalfOpenCalls=" + this.circuitBreakerHalfOpenCalls + ", circuitBreakerOpenStateWaitMs=" + this.circuitBreakerOpenStateWaitMs + ")";
             }
         }
     }
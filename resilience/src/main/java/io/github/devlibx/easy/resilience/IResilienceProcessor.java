@@ -5,6 +5,8 @@ import io.github.devlibx.easy.resilience.exception.ResilienceException;
 import io.reactivex.rxjava3.core.Observable;
 
 import java.util.concurrent.Callable;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 public interface IResilienceProcessor {
 
@@ -29,4 +31,19 @@ public interface IResilienceProcessor {
      * Execute a observable
      */
     <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls);
+
+    /**
+     * Execute a blocking supplier and wait for its result - no observable is built for the call. Errors are same as
+     * {@link #executeObservable(String, Observable, Class)} gives for a observable which runs this supplier (an error
+     * of the supplier is thrown as it is, and a resilience error is thrown as {@link ResilienceException}).
+     */
+    default <T> T executeBlocking(String id, Supplier<T> supplier, Class<T> cls) {
+        return executeObservable(id, Observable.fromSupplier(supplier::get), cls).blockingFirst();
+    }
+
+    /**
+     * Add a listener which is called with the new concurrency limit when adaptive concurrency changes the limit
+     */
+    default void addConcurrencyLimitListener(IntConsumer listener) {
+    }
 }
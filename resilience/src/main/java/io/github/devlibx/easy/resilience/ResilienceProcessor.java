@@ -4,48 +4,123 @@ import io.github.devlibx.easy.resilience.IResilienceManager.ResilienceCallConfig
 import io.github.devlibx.easy.resilience.exception.ExceptionUtil;
 import io.github.devlibx.easy.resilience.exception.ResilienceException;
 import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
 import io.github.resilience4j.bulkhead.internal.SemaphoreBulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig.SlidingWindowType;
 import io.github.resilience4j.decorators.Decorators;
-import io.github.resilience4j.timelimiter.TimeLimiter;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.ObservableEmitter;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 import static io.github.devlibx.easy.resilience.exception.ExceptionUtil.unwrapResilience4jException;
 import static io.github.devlibx.easy.resilience.exception.ExceptionUtil.unwrapResilience4jExecutionException;
 
+@Slf4j
 public class ResilienceProcessor implements IResilienceProcessor {
+
+    /**
+     * A single scheduler shared by all processors to handle timeouts. A timeout task is cancelled (and removed from
+     * the scheduler) as soon as the call completes, so this scheduler only holds timeouts of in-flight calls (see
+     * "withTimeout").
+     */
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = buildTimeoutScheduler();
+    private static final Scheduler TIMEOUT_RX_SCHEDULER = Schedulers.from(TIMEOUT_SCHEDULER);
+
+    /**
+     * Max threads in the executor shared by all apis which use shared executor - default is 200, and it can be changed
+     * with "easy.resilience.sharedExecutorThreads" system property. Calls block on http I/O, so threads are mostly
+     * waiting; threads are created on demand and stop after 60 sec idle time. A api can not use more threads than its
+     * concurrency, and calls above max threads wait in the executor queue.
+     */
+    private static final int SHARED_EXECUTOR_THREADS = Integer.getInteger("easy.resilience.sharedExecutorThreads", 200);
+
     @Getter
     private CircuitBreaker circuitBreaker;
     private ThreadPoolBulkhead threadPoolBulkhead;
     private ScheduledExecutorService scheduler;
-    private TimeLimiter timeLimiter;
     private SemaphoreBulkhead semaphoreBulkhead;
     private ResilienceCallConfig config;
 
+    /**
+     * Executor to run calls (set only if calls run in shared executor or in virtual threads) - it runs at most
+     * "concurrency" calls of this api at once, and other calls wait in its queue
+     */
+    private ConcurrencyLimitedExecutor callExecutor;
+
+    /**
+     * Adaptive concurrency limit (set only if adaptive concurrency is enabled)
+     */
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+
+    /**
+     * @return circuit breaker config - a value which is not set (0 or null) uses the default of resilience4j (wait in
+     * open state is 100ms by default)
+     */
+    static CircuitBreakerConfig circuitBreakerConfig(ResilienceCallConfig config) {
+        CircuitBreakerConfig.Builder builder = CircuitBreakerConfig.custom()
+                .enableAutomaticTransitionFromOpenToHalfOpen()
+                .waitDurationInOpenState(Duration.ofMillis(config.getCircuitBreakerOpenStateWaitMs() > 0 ? config.getCircuitBreakerOpenStateWaitMs() : 100));
+        if (config.getCircuitBreakerWindowSize() > 0) {
+            SlidingWindowType windowType = config.getCircuitBreakerWindowType() == null || config.getCircuitBreakerWindowType().isEmpty()
+                    ? SlidingWindowType.COUNT_BASED
+                    : SlidingWindowType.valueOf(config.getCircuitBreakerWindowType().toUpperCase());
+            int minimumCalls = config.getCircuitBreakerMinimumCalls() > 0 ? config.getCircuitBreakerMinimumCalls() : config.getCircuitBreakerWindowSize();
+            builder.slidingWindow(config.getCircuitBreakerWindowSize(), minimumCalls, windowType);
+        } else if (config.getCircuitBreakerMinimumCalls() > 0) {
+            builder.minimumNumberOfCalls(config.getCircuitBreakerMinimumCalls());
+        }
+        if (config.getCircuitBreakerFailureRateThreshold() > 0) {
+            builder.failureRateThreshold(Math.min(100, config.getCircuitBreakerFailureRateThreshold()));
+        }
+        if (config.getCircuitBreakerSlowCallRateThreshold() > 0) {
+            builder.slowCallRateThreshold(Math.min(100, config.getCircuitBreakerSlowCallRateThreshold()));
+        }
+        if (config.getCircuitBreakerSlowCallDurationMs() > 0) {
+            builder.slowCallDurationThreshold(Duration.ofMillis(config.getCircuitBreakerSlowCallDurationMs()));
+        }
+        if (config.getCircuitBreakerHalfOpenCalls() > 0) {
+            builder.permittedNumberOfCallsInHalfOpenState(config.getCircuitBreakerHalfOpenCalls());
+        }
+        return builder.build();
+    }
+
     @Override
     public void initialized(ResilienceCallConfig config) {
         this.config = config;
 
-        // Setup a circuit breaker with default settings
-        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
-                .enableAutomaticTransitionFromOpenToHalfOpen()
-                .waitDurationInOpenState(Duration.ofMillis(100))
-                .build();
-        circuitBreaker = CircuitBreaker.of(config.getId(), circuitBreakerConfig);
+        // Setup a circuit breaker - it counts failed calls and slow calls
+        circuitBreaker = CircuitBreaker.of(config.getId(), circuitBreakerConfig(config));
 
         // Create bulk head
         if (config.isUseSemaphore()) {
@@ -53,6 +128,36 @@ public class ResilienceProcessor implements IResilienceProcessor {
                     .maxConcurrentCalls(config.getConcurrency() + config.getQueueSize())
                     .build();
             semaphoreBulkhead = new SemaphoreBulkhead(config.getId(), bulkheadConfig);
+        } else if (config.isUseSharedExecutor() || config.isUseVirtualThreads() || config.isAdaptiveConcurrency()) {
+
+            // A thread pool bulkhead can not be resized - so adaptive concurrency always runs in shared executor
+            if (config.isAdaptiveConcurrency() && !config.isUseSharedExecutor() && !config.isUseVirtualThreads()) {
+                log.info("adaptive concurrency runs calls in shared executor (not in a thread pool of its own): id={}", config.getId());
+            }
+
+            // Calls run in executor shared by all apis (or in virtual threads) - a api gets "concurrency + queueSize"
+            // permits, and only "concurrency" calls run at once (same as a thread pool bulkhead, so that running calls
+            // do not need more connections than the connection pool of the api has). Other calls wait for their turn.
+            BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                    .maxConcurrentCalls(config.getConcurrency() + config.getQueueSize())
+                    .maxWaitDuration(Duration.ZERO)
+                    .build();
+            semaphoreBulkhead = new SemaphoreBulkhead(config.getId(), bulkheadConfig);
+
+            // A shared scheduler to handle timeouts
+            scheduler = TIMEOUT_SCHEDULER;
+
+            // Use virtual threads if asked and supported by runtime
+            Executor executor;
+            if (config.isUseVirtualThreads() && VirtualThreadExecutorHolder.EXECUTOR != null) {
+                executor = VirtualThreadExecutorHolder.EXECUTOR;
+            } else {
+                if (config.isUseVirtualThreads()) {
+                    log.warn("virtual threads are not supported in this runtime - using shared executor: id={}", config.getId());
+                }
+                executor = SharedExecutorHolder.EXECUTOR;
+            }
+            callExecutor = new ConcurrencyLimitedExecutor(executor, config.getConcurrency());
         } else {
 
             // Create thread bulk head
@@ -63,19 +168,69 @@ public class ResilienceProcessor implements IResilienceProcessor {
                     .build();
             threadPoolBulkhead = ThreadPoolBulkhead.of(config.getId(), threadPoolBulkheadConfig);
 
-            // A scheduler and time limiter to handle timeouts
-            scheduler = Executors.newScheduledThreadPool(config.getConcurrency());
-            timeLimiter = TimeLimiter.of(Duration.ofMillis(config.getTimeout()));
+            // A shared scheduler to handle timeouts
+            scheduler = TIMEOUT_SCHEDULER;
+        }
+
+        // Adaptive concurrency - limit is changed by the calls completed (as seen by circuit breaker), and bulkhead (and
+        // no of running calls) is resized with the new limit
+        if (config.isAdaptiveConcurrency()) {
+            concurrencyLimit = new AdaptiveConcurrencyLimit(
+                    config.getId(),
+                    config.getConcurrency(),
+                    1,
+                    config.getMaxConcurrency() > 0 ? config.getMaxConcurrency() : 10 * config.getConcurrency(),
+                    TimeUnit.MILLISECONDS.toNanos(config.getTimeout()) * 8 / 10,
+                    0.9
+            );
+            concurrencyLimit.addListener(limit -> {
+                semaphoreBulkhead.changeConfig(
+                        BulkheadConfig.from(semaphoreBulkhead.getBulkheadConfig())
+                                .maxConcurrentCalls(limit + config.getQueueSize())
+                                .build()
+                );
+                if (callExecutor != null) {
+                    callExecutor.setLimit(limit);
+                }
+            });
+            circuitBreaker.getEventPublisher()
+                    .onSuccess(event -> concurrencyLimit.onSample(event.getElapsedDuration().toNanos(), inFlightCalls(), null))
+                    .onError(event -> concurrencyLimit.onSample(event.getElapsedDuration().toNanos(), inFlightCalls(), event.getThrowable()));
         }
     }
 
+    @Override
+    public void addConcurrencyLimitListener(IntConsumer listener) {
+        if (concurrencyLimit != null) {
+            concurrencyLimit.addListener(listener);
+        }
+    }
+
+    private int inFlightCalls() {
+        return semaphoreBulkhead.getBulkheadConfig().getMaxConcurrentCalls() - semaphoreBulkhead.getMetrics().getAvailableConcurrentCalls();
+    }
+
     @Override
     public <T> T execute(String id, Callable<T> callable, Class<T> cls) throws ResilienceException {
+        if (callExecutor != null) {
+            try {
+                return executeOnSharedExecutor(() -> {
+                    try {
+                        return callable.call();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }).get();
+            } catch (ExecutionException e) {
+                throw unwrapResilience4jExecutionException(e);
+            } catch (Exception e) {
+                throw unwrapResilience4jException(e);
+            }
+        }
+
         try {
             CompletableFuture<T> future = Decorators
-                    .ofCallable(callable)
-                    .withThreadPoolBulkhead(threadPoolBulkhead)
-                    .withTimeLimiter(timeLimiter, scheduler)
+                    .ofCompletionStage(withTimeout(Decorators.ofCallable(callable).withThreadPoolBulkhead(threadPoolBulkhead).decorate()))
                     .withCircuitBreaker(circuitBreaker)
                     .get()
                     .toCompletableFuture();
@@ -106,29 +261,198 @@ public class ResilienceProcessor implements IResilienceProcessor {
 
     @Override
     public <T> Observable<T> executeObservable(String id, Observable<T> observable, Class<T> cls) {
+        if (config.isUseSemaphore()) {
+            return executeNonBlockingObservable(observable);
+        } else if (callExecutor != null) {
+            return Observable.create(observableEmitter -> {
+                executeOnSharedExecutor(observable::blockingFirst)
+                        .whenCompleteAsync(whenComplete(observableEmitter));
+            });
+        }
         return Observable.create(observableEmitter -> {
+            withTimeout(Decorators.ofSupplier(observable::blockingFirst)
+                    .withCircuitBreaker(circuitBreaker)
+                    .withThreadPoolBulkhead(threadPoolBulkhead)
+                    .decorate())
+                    .get()
+                    .whenCompleteAsync(whenComplete(observableEmitter));
+        });
+    }
 
-            if (config.isUseSemaphore()) {
-                try {
-                    T result = Decorators.ofSupplier(observable::blockingFirst)
-                            .withCircuitBreaker(circuitBreaker)
-                            .withBulkhead(semaphoreBulkhead)
-                            .decorate()
-                            .get();
-                    whenComplete(observableEmitter).accept(result, null);
-                } catch (Exception e) {
-                    whenComplete(observableEmitter).accept(null, e);
-                }
+    @Override
+    public <T> T executeBlocking(String id, Supplier<T> supplier, Class<T> cls) {
+        if (config.isUseSemaphore()) {
+            return IResilienceProcessor.super.executeBlocking(id, supplier, cls);
+        }
+        try {
+            CompletableFuture<T> future;
+            if (callExecutor != null) {
+                future = executeOnSharedExecutor(supplier);
             } else {
-                Decorators.ofSupplier(observable::blockingFirst)
+                future = withTimeout(Decorators.ofSupplier(supplier)
                         .withCircuitBreaker(circuitBreaker)
                         .withThreadPoolBulkhead(threadPoolBulkhead)
-                        .withTimeLimiter(timeLimiter, scheduler)
-                        .decorate()
+                        .decorate())
                         .get()
-                        .whenCompleteAsync(whenComplete(observableEmitter));
+                        .toCompletableFuture();
+            }
+            return future.get();
+        } catch (ExecutionException e) {
+            // Same errors as "whenComplete" gives for a observable
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+            throw unwrapResilience4jException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unwrapResilience4jException(e);
+        } catch (Exception e) {
+            throw unwrapResilience4jException(e);
+        }
+    }
+
+    /**
+     * Run supplier in the shared executor (or in a virtual thread) - bulkhead permit is held till supplier is complete (even if call is
+     * timed out).
+     */
+    private <T> CompletableFuture<T> executeOnSharedExecutor(Supplier<T> supplier) {
+        return Decorators
+                .ofCompletionStage(withTimeout(Decorators
+                        .ofCompletionStage(() -> CompletableFuture.supplyAsync(supplier, callExecutor))
+                        .withBulkhead(semaphoreBulkhead)
+                        .decorate()))
+                .withCircuitBreaker(circuitBreaker)
+                .get()
+                .toCompletableFuture();
+    }
+
+    /**
+     * Fail a call with a TimeoutException if it is not complete in the timeout. The timeout task is cancelled (and
+     * removed from the shared scheduler) as soon as the call completes, with a result or with a error. TimeLimiter of
+     * resilience4j cancels it only for a non-null result, so timeouts of failed calls stayed in the scheduler.
+     */
+    private <T> Supplier<CompletionStage<T>> withTimeout(Supplier<CompletionStage<T>> supplier) {
+        return () -> {
+            CompletionStage<T> stage = supplier.get();
+            CompletableFuture<T> future = new CompletableFuture<>();
+            ScheduledFuture<?> timeoutFuture = scheduler.schedule(
+                    () -> future.completeExceptionally(new TimeoutException("call timed out: id=" + config.getId() + ", timeout=" + config.getTimeout() + "ms")),
+                    config.getTimeout(),
+                    TimeUnit.MILLISECONDS
+            );
+            stage.whenComplete((t, throwable) -> {
+                timeoutFuture.cancel(false);
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(t);
+                }
+            });
+            return future;
+        };
+    }
+
+    /**
+     * Circuit breaker, semaphore bulkhead and timeout are applied as operators on the observable - no thread is
+     * blocked while the observable is running.
+     */
+    private <T> Observable<T> executeNonBlockingObservable(Observable<T> observable) {
+        return Observable.defer(() -> {
+
+            // Acquire permits from circuit breaker and bulkhead
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Observable.error(ExceptionUtil.unwrapResilience4jException(CallNotPermittedException.createCallNotPermittedException(circuitBreaker)));
+            }
+            if (!semaphoreBulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                return Observable.error(ExceptionUtil.unwrapResilience4jException(BulkheadFullException.createBulkheadFullException(semaphoreBulkhead)));
+            }
+
+            // Permits must be released only once (on success, error or dispose)
+            final long start = System.nanoTime();
+            final AtomicBoolean released = new AtomicBoolean();
+            return observable
+                    .firstOrError()
+                    .timeout(config.getTimeout(), TimeUnit.MILLISECONDS, TIMEOUT_RX_SCHEDULER)
+                    .doOnSuccess(t -> {
+                        if (released.compareAndSet(false, true)) {
+                            semaphoreBulkhead.onComplete();
+                            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    })
+                    .doOnError(throwable -> {
+                        if (released.compareAndSet(false, true)) {
+                            semaphoreBulkhead.onComplete();
+                            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, throwable);
+                        }
+                    })
+                    .doOnDispose(() -> {
+                        if (released.compareAndSet(false, true)) {
+                            semaphoreBulkhead.onComplete();
+                            circuitBreaker.releasePermission();
+                        }
+                    })
+                    .onErrorResumeNext(throwable -> Single.error(ExceptionUtil.unwrapResilience4jException(throwable)))
+                    .toObservable();
+        });
+    }
+
+    /**
+     * Executor shared by all apis which use shared executor (created on first use). Calls do blocking http I/O, so this
+     * is a bounded thread pool (and not a ForkJoinPool, which expects tasks that do not block).
+     */
+    private static class SharedExecutorHolder {
+        private static final ExecutorService EXECUTOR = buildSharedExecutor();
+
+        private static ExecutorService buildSharedExecutor() {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    SHARED_EXECUTOR_THREADS,
+                    SHARED_EXECUTOR_THREADS,
+                    60,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "easy-resilience-shared-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+            );
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Executor which runs each call in a new virtual thread - null if runtime does not support virtual threads. This
+     * is looked up at runtime because this library is built for Java 8.
+     */
+    private static class VirtualThreadExecutorHolder {
+        private static final ExecutorService EXECUTOR = buildVirtualThreadExecutor();
+
+        private static ExecutorService buildVirtualThreadExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (Exception e) {
+                return null;
             }
+        }
+    }
+
+    /**
+     * @return no of timeout tasks waiting in the shared timeout scheduler
+     */
+    static int pendingTimeouts() {
+        return ((ScheduledThreadPoolExecutor) TIMEOUT_SCHEDULER).getQueue().size();
+    }
+
+    private static ScheduledExecutorService buildTimeoutScheduler() {
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, runnable -> {
+            Thread thread = new Thread(runnable, "easy-resilience-timeout-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
     }
 
     private static <T> BiConsumer<T, Throwable> whenComplete(ObservableEmitter<T> observableEmitter) {
@@ -0,0 +1,67 @@
+package io.github.devlibx.easy.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket. Bucket gets "rps" tokens per second and holds at most "burst" tokens.
+ * <p>
+ * Bucket is kept as a single timestamp (time at which bucket will be empty again if no more tokens are taken - same
+ * as GCRA), so taking a token is a single CAS.
+ */
+public class TokenBucketRateLimiter {
+    private final String id;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long maxWaitNanos;
+    private final AtomicLong emptyAtNanos;
+
+    /**
+     * @param id        name of this limiter (used in error message)
+     * @param rps       tokens added per second
+     * @param burst     max tokens which can be taken at once (min 1)
+     * @param maxWaitMs max time to wait for a token (0 = fail fast if bucket is empty)
+     */
+    public TokenBucketRateLimiter(String id, int rps, int burst, int maxWaitMs) {
+        if (rps <= 0) {
+            throw new IllegalArgumentException("rps must be > 0: id=" + id);
+        }
+        this.id = id;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        this.burstNanos = (Math.max(1, burst) - 1) * intervalNanos;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.emptyAtNanos = new AtomicLong(System.nanoTime() - burstNanos - intervalNanos);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Take a token
+     *
+     * @return time (in nanos) to wait before the token can be used - 0 if token can be used now, or -1 if token is
+     * not available within max wait time (no token is taken in this case)
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long emptyAt = emptyAtNanos.get();
+            long start = emptyAt - now > 0 ? emptyAt : now;
+            long wait = start - now - burstNanos;
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (emptyAtNanos.compareAndSet(emptyAt, start + intervalNanos)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken with "tryAcquire" which was not used (e.g. call was rejected by another limiter)
+     */
+    public void release() {
+        emptyAtNanos.addAndGet(-intervalNanos);
+    }
+}
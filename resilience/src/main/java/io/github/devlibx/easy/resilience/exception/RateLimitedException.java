@@ -0,0 +1,7 @@
+package io.github.devlibx.easy.resilience.exception;
+
+public class RateLimitedException extends ResilienceException {
+    public RateLimitedException(String message, Throwable e) {
+        super("Request rate limited - " + message, e);
+    }
+}
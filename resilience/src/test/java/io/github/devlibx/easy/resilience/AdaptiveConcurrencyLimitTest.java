@@ -0,0 +1,48 @@
+package io.github.devlibx.easy.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    @DisplayName("Limit is increased when calls are fast and reduced on timeout or slow calls")
+    public void limitIsChangedWithSamples() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 10, 1, 12, TimeUnit.MILLISECONDS.toNanos(100), 0.5);
+        AtomicInteger lastLimit = new AtomicInteger();
+        limit.addListener(lastLimit::set);
+
+        // Test 1 - fast call with enough in-flight calls increases limit (till max limit)
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 10, null);
+        assertEquals(11, limit.getLimit());
+        assertEquals(11, lastLimit.get());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 10, null);
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 10, null);
+        assertEquals(12, limit.getLimit());
+
+        // Test 2 - fast call with few in-flight calls does not change limit
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1, null);
+        assertEquals(12, limit.getLimit());
+
+        // Test 3 - slow call and timeout reduce the limit
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(200), 10, null);
+        assertEquals(6, limit.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 10, new RuntimeException(new TimeoutException()));
+        assertEquals(3, limit.getLimit());
+        assertEquals(3, lastLimit.get());
+
+        // Test 4 - other errors do not change the limit, and limit never goes below min limit
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 10, new RuntimeException());
+        assertEquals(3, limit.getLimit());
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(200), 10, null);
+        }
+        assertEquals(1, limit.getLimit());
+    }
+}
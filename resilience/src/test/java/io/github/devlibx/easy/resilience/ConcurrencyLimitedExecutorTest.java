@@ -0,0 +1,48 @@
+package io.github.devlibx.easy.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrencyLimitedExecutorTest {
+
+    @Test
+    public void testTasksAboveLimitWait() throws Exception {
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor(executorService, 2);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(4);
+            for (int i = 0; i < 4; i++) {
+                executor.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                    done.countDown();
+                });
+            }
+            assertEquals(2, executor.getRunning());
+            assertEquals(2, executor.getWaiting());
+
+            // A higher limit starts waiting tasks right away
+            executor.setLimit(3);
+            assertEquals(3, executor.getRunning());
+            assertEquals(1, executor.getWaiting());
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals(0, executor.getRunning());
+            assertEquals(0, executor.getWaiting());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
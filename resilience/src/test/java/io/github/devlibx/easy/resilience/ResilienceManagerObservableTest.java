@@ -231,4 +231,84 @@ public class ResilienceManagerObservableTest extends CommonBaseTestCase {
                 );
         assertTrue(gotException.get(), "We must have received an exception");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test semaphore (async) mode does not block the subscriber thread
+     */
+    @Test
+    @DisplayName("Semaphore mode runs without blocking and applies bulkhead and timeout")
+    public void semaphoreModeIsNonBlocking() throws InterruptedException {
+        String uuid = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                IResilienceManager.ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .timeout(200)
+                        .concurrency(1)
+                        .queueSize(0)
+                        .useSemaphore(true)
+                        .build()
+        );
+
+        // Test 1 - subscribe returns immediately and result is delivered later
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger result = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        processor.executeObservable(uuid, Observable.timer(100, TimeUnit.MILLISECONDS), Long.class)
+                .subscribe(aLong -> {
+                    result.set(10);
+                    latch.countDown();
+                }, throwable -> latch.countDown());
+        assertTrue(System.currentTimeMillis() - start < 100, "Subscribe must not block till the call is complete");
+
+        // Test 2 - bulkhead is full while first call is running
+        AtomicBoolean gotOverflow = new AtomicBoolean();
+        processor.executeObservable(uuid, Observable.just(1L), Long.class)
+                .blockingSubscribe(aLong -> fail("Bulkhead is full, we should never get there"),
+                        throwable -> gotOverflow.set(throwable instanceof OverflowException));
+        assertTrue(gotOverflow.get(), "We must have received a OverflowException");
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(10, result.get());
+
+        // Test 3 - slow call gets a timeout
+        AtomicBoolean gotTimeout = new AtomicBoolean();
+        processor.executeObservable(uuid, Observable.timer(1000, TimeUnit.MILLISECONDS), Long.class)
+                .blockingSubscribe(aLong -> fail("We should never get here"),
+                        throwable -> gotTimeout.set(throwable instanceof RequestTimeoutException));
+        assertTrue(gotTimeout.get(), "We must have received a RequestTimeoutException");
+
+        // Test 4 - permit is released after timeout
+        processor.executeObservable(uuid, Observable.just(20L), Long.class)
+                .blockingSubscribe(aLong -> assertEquals(20L, aLong.longValue()),
+                        throwable -> fail("We should never get here"));
+    }
+
+    @Test
+    @DisplayName("Circuit is opened if too many calls are slow (even if they do not fail)")
+    public void circuitIsOpenedBySlowCalls() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        ResilienceProcessor processor = (ResilienceProcessor) resilienceManager.getOrCreate(
+                IResilienceManager.ResilienceCallConfig.withDefaults()
+                        .concurrency(2)
+                        .id(uuid)
+                        .timeout(1000)
+                        .useSemaphore(true)
+                        .circuitBreakerWindowSize(4)
+                        .circuitBreakerMinimumCalls(4)
+                        .circuitBreakerSlowCallDurationMs(20)
+                        .circuitBreakerSlowCallRateThreshold(50)
+                        .circuitBreakerOpenStateWaitMs(10000)
+                        .build()
+        );
+
+        // All calls are successful, but slower than slow call duration
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0L, processor.executeObservable(uuid, Observable.timer(50, TimeUnit.MILLISECONDS), Long.class).blockingFirst().longValue());
+        }
+
+        AtomicBoolean gotException = new AtomicBoolean();
+        processor.executeObservable(uuid, Observable.just(1L), Long.class)
+                .blockingSubscribe(aLong -> fail("Circuit is open, we should never get there"),
+                        throwable -> gotException.set(throwable instanceof CircuitOpenException));
+        assertTrue(gotException.get(), "We must have received a CircuitOpenException");
+    }
+}
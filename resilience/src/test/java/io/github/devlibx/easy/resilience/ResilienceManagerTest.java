@@ -182,6 +182,133 @@ public class ResilienceManagerTest extends CommonBaseTestCase {
         assertTrue(gotException);
     }
 
+    /**
+     * Run calls in shared executor - extra calls get overflow and slow call gets timeout
+     */
+    @Test
+    public void testResilienceManager_SharedExecutor() throws Exception {
+        int concurrency = 3;
+        int queueSize = 1;
+        String uuid = UUID.randomUUID().toString();
+        IResilienceProcessor processor = resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .concurrency(concurrency)
+                        .queueSize(queueSize)
+                        .timeout(500)
+                        .useSharedExecutor(true)
+                        .build()
+        );
+
+        // Test 1 - make (concurrency + queueSize + 2) calls - 2 calls must get overflow, and only "concurrency" calls
+        // run at once (queued call waits for its turn)
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger overflow = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch allCallLatch = new CountDownLatch(concurrency + queueSize + 2);
+        for (int i = 0; i < concurrency + queueSize + 2; i++) {
+            new Thread(() -> {
+                try {
+                    processor.execute(uuid, () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        Thread.sleep(200);
+                        running.decrementAndGet();
+                        return UUID.randomUUID().toString();
+                    }, String.class);
+                    success.incrementAndGet();
+                } catch (OverflowException e) {
+                    overflow.incrementAndGet();
+                } finally {
+                    allCallLatch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(allCallLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(concurrency + queueSize, success.get(), "We expect success for these requests");
+        assertEquals(2, overflow.get(), "We expect error for these requests");
+        assertEquals(concurrency, maxRunning.get(), "We expect only concurrency calls to run at once");
+
+        // Test 2 - slow call gets a timeout
+        boolean gotException = false;
+        try {
+            processor.execute(uuid, () -> {
+                Thread.sleep(1000);
+                return UUID.randomUUID().toString();
+            }, String.class);
+        } catch (RequestTimeoutException e) {
+            gotException = true;
+        }
+        assertTrue(gotException);
+    }
+
+    /**
+     * Run calls in virtual threads (or in shared executor if runtime does not support virtual threads)
+     */
+    @Test
+    public void testResilienceManager_VirtualThreads() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        IResilienceProcessor processor = resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .concurrency(2)
+                        .queueSize(0)
+                        .timeout(100)
+                        .useVirtualThreads(true)
+                        .build()
+        );
+
+        // Test 1 - call runs in a thread other than the caller thread
+        Thread caller = Thread.currentThread();
+        assertEquals(Boolean.TRUE, processor.execute(uuid, () -> Thread.currentThread() != caller, Boolean.class));
+
+        // Test 2 - slow call gets a timeout
+        boolean gotException = false;
+        try {
+            processor.execute(uuid, () -> {
+                Thread.sleep(1000);
+                return UUID.randomUUID().toString();
+            }, String.class);
+        } catch (RequestTimeoutException e) {
+            gotException = true;
+        }
+        assertTrue(gotException);
+
+        // Test 3 - only "concurrency" calls run at once, and queued call waits for its turn
+        String limitedId = UUID.randomUUID().toString();
+        IResilienceProcessor limitedProcessor = resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(limitedId)
+                        .concurrency(1)
+                        .queueSize(1)
+                        .timeout(1000)
+                        .useVirtualThreads(true)
+                        .build()
+        );
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch allCallLatch = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            new Thread(() -> {
+                try {
+                    limitedProcessor.execute(limitedId, () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        Thread.sleep(100);
+                        running.decrementAndGet();
+                        return UUID.randomUUID().toString();
+                    }, String.class);
+                    success.incrementAndGet();
+                } finally {
+                    allCallLatch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(allCallLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(2, success.get());
+        assertEquals(1, maxRunning.get());
+    }
+
     /**
      * Generate a open circuit due to many errors
      */
@@ -220,6 +347,50 @@ public class ResilienceManagerTest extends CommonBaseTestCase {
         assertTrue(gotCircuitOpenException);
     }
 
+    /**
+     * Test blocking execution gives same result and errors as a observable
+     */
+    @Test
+    public void testResilienceManager_ExecuteBlocking() {
+        for (boolean sharedExecutor : new boolean[]{false, true}) {
+            String uuid = UUID.randomUUID().toString();
+            IResilienceProcessor processor = resilienceManager.getOrCreate(
+                    ResilienceCallConfig.withDefaults()
+                            .concurrency(3)
+                            .id(uuid)
+                            .timeout(100)
+                            .useSharedExecutor(sharedExecutor)
+                            .build()
+            );
+
+            assertEquals(10L, processor.executeBlocking(uuid, () -> 10L, Long.class).longValue());
+
+            // Error of the call is thrown as it is (not wrapped)
+            try {
+                processor.executeBlocking(uuid, () -> {
+                    throw new CustomException();
+                }, Long.class);
+                fail("we must get a exception");
+            } catch (CustomException e) {
+                // This is expected
+            }
+
+            // Slow call gets a timeout
+            try {
+                processor.executeBlocking(uuid, () -> {
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException ignored) {
+                    }
+                    return 10L;
+                }, Long.class);
+                fail("we must get a timeout");
+            } catch (RequestTimeoutException e) {
+                // This is expected
+            }
+        }
+    }
+
     /**
      * Test a observable with success
      */
@@ -420,6 +591,34 @@ public class ResilienceManagerTest extends CommonBaseTestCase {
 
     }
 
+    /**
+     * Timeout of a failed call must be removed from the shared timeout scheduler when the call completes (and not stay
+     * there till the timeout)
+     */
+    @Test
+    public void testTimeoutIsCancelledForFailedCalls() {
+        String uuid = UUID.randomUUID().toString();
+        IResilienceProcessor processor = resilienceManager.getOrCreate(
+                ResilienceCallConfig.withDefaults()
+                        .id(uuid)
+                        .concurrency(2)
+                        .timeout(60_000)
+                        .build()
+        );
+
+        int pendingTimeouts = ResilienceProcessor.pendingTimeouts();
+        for (int i = 0; i < 10; i++) {
+            try {
+                processor.execute(uuid, () -> {
+                    throw new CustomException();
+                }, String.class);
+                fail("call must fail");
+            } catch (Exception ignored) {
+            }
+        }
+        assertTrue(ResilienceProcessor.pendingTimeouts() <= pendingTimeouts);
+    }
+
     public static class CustomException extends RuntimeException {
     }
 }
\ No newline at end of file
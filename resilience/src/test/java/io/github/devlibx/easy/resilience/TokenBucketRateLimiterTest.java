@@ -0,0 +1,54 @@
+package io.github.devlibx.easy.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    @DisplayName("Burst tokens are given at once and extra calls fail fast")
+    public void burstAndFailFast() throws Exception {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter("test", 10, 3, 0);
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(-1, rateLimiter.tryAcquire());
+
+        // We get 1 token every 100ms
+        Thread.sleep(120);
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(-1, rateLimiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Call waits for its turn if max wait is set")
+    public void waitForToken() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter("test", 10, 1, 250);
+        assertEquals(0, rateLimiter.tryAcquire());
+
+        // Next 2 calls wait ~100ms and ~200ms, and the one after that can not wait for 300ms
+        long wait = rateLimiter.tryAcquire();
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(90) && wait <= TimeUnit.MILLISECONDS.toNanos(100), "wait=" + wait);
+        wait = rateLimiter.tryAcquire();
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(190) && wait <= TimeUnit.MILLISECONDS.toNanos(200), "wait=" + wait);
+        assertEquals(-1, rateLimiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("A token which is given back can be taken again")
+    public void releaseToken() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter("test", 10, 2, 0);
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(-1, rateLimiter.tryAcquire());
+
+        rateLimiter.release();
+        assertEquals(0, rateLimiter.tryAcquire());
+        assertEquals(-1, rateLimiter.tryAcquire());
+    }
+}